@@ -0,0 +1,122 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PositionCache;
+import chess.Search;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the ChessGame operations the server runs on every move request.
+ * Build with {@code mvn -pl benchmarks -am package -DskipTests} and run with
+ * {@code java -jar benchmarks/target/benchmarks-test-dependencies.jar}.
+ * <p>
+ * The forks run with the shared position cache off, so the move generation benchmarks
+ * measure generating moves rather than probing the cache for positions an earlier
+ * iteration already stored. The Cached variants run with the cache on for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-D" + PositionCache.BUDGET_PROPERTY + "=0")
+public class ChessGameBenchmark {
+
+    private final Gson gson = new Gson();
+    private final Search search = new Search();
+    private ChessGame middleGame;
+    private ChessGame checkmated;
+    private String middleGameJson;
+    private final List<ChessPosition> sideToMovePieces = new ArrayList<>();
+
+    @Setup
+    public void setup() throws InvalidMoveException {
+        middleGame = Positions.play(Positions.ITALIAN);
+        checkmated = Positions.play(Positions.FOOLS_MATE);
+        middleGameJson = gson.toJson(middleGame);
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = middleGame.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == middleGame.getTeamTurn()) {
+                    sideToMovePieces.add(position);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        // the game keeps the legal moves of its position, setting the turn again drops them
+        middleGame.setTeamTurn(middleGame.getTeamTurn());
+        for (ChessPosition position : sideToMovePieces) {
+            blackhole.consume(middleGame.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public ChessGame makeMoveOpeningLine() throws InvalidMoveException {
+        return Positions.play(Positions.ITALIAN);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-D" + PositionCache.BUDGET_PROPERTY + "=16")
+    public ChessGame makeMoveOpeningLineCached() throws InvalidMoveException {
+        return Positions.play(Positions.ITALIAN);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        // setting the turn again drops the game's own status, and with the shared cache
+        // off the status is worked out again
+        checkmated.setTeamTurn(checkmated.getTeamTurn());
+        return checkmated.isInCheckmate(checkmated.getTeamTurn());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-D" + PositionCache.BUDGET_PROPERTY + "=16")
+    public boolean isInCheckmateCached() {
+        // the shared cache answers from the status stored on the first call
+        checkmated.setTeamTurn(checkmated.getTeamTurn());
+        return checkmated.isInCheckmate(checkmated.getTeamTurn());
+    }
+
+    @Benchmark
+    public Search.Result searchDepth4() {
+        return search.search(middleGame, 4);
+    }
+
+    @Benchmark
+    public ChessBoard copyBoard() {
+        return middleGame.copy();
+    }
+
+    @Benchmark
+    public String gsonSerialize() {
+        return gson.toJson(middleGame);
+    }
+
+    @Benchmark
+    public ChessGame gsonDeserialize() {
+        return gson.fromJson(middleGameJson, ChessGame.class);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.Perft;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth on every core and reports
+ * nodes/sec. Mismatches against the published counts point at move generation bugs, and
+ * the per-root-move counts of the deepest run narrow them down.
+ * The positions are the usual FEN test suite covering castling, en passant, promotions
+ * and pins. Run with {@code mvn -pl benchmarks exec:java -Dexec.args="<depth> [divide]"}.
+ */
+public class PerftMain {
+
+    private record TestPosition(String name, String fen, long[] expected) {
+    }
+
+    private static final List<TestPosition> POSITIONS = List.of(
+            new TestPosition("start position", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    new long[]{1, 20, 400, 8902, 197281, 4865609, 119060324}),
+            new TestPosition("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{1, 48, 2039, 97862, 4085603, 193690690}),
+            new TestPosition("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{1, 14, 191, 2812, 43238, 674624, 11030083}),
+            new TestPosition("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{1, 6, 264, 9467, 422333, 15833292}),
+            new TestPosition("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{1, 44, 1486, 62379, 2103487, 89941194}));
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        boolean divide = args.length > 1 && args[1].equals("divide");
+        for (TestPosition position : POSITIONS) {
+            run(position, ChessBoard.fromFen(position.fen()), maxDepth, divide);
+        }
+    }
+
+    private static void run(TestPosition position, ChessBoard board, int maxDepth, boolean divide) {
+        System.out.println(position.name());
+        Perft.Result result = null;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            result = Perft.divide(board, depth);
+            long nodes = result.nodes();
+            String check = depth < position.expected().length && nodes != position.expected()[depth]
+                    ? "  MISMATCH, expected " + position.expected()[depth] : "";
+            System.out.printf("  depth %d: %,d nodes in %.3fs (%,.0f nodes/sec)%s%n",
+                    depth, nodes, result.elapsedNanos() / 1e9, result.nodesPerSecond(), check);
+        }
+        if (divide && result != null) {
+            for (Map.Entry<ChessMove, Long> entry : result.divide().entrySet()) {
+                System.out.printf("    %s: %,d%n", entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
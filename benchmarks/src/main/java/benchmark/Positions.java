@@ -0,0 +1,46 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+/**
+ * Move sequences used to set up benchmark positions, written as coordinate moves
+ * ("e2e4", "e7e8q" for a promotion)
+ */
+public class Positions {
+
+    public static final String[] ITALIAN = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d3", "d7d6",
+            "e1g1", "e8g8", "a2a4", "a7a6", "f1e1", "c8e6", "b1d2", "h7h6"};
+
+    public static final String[] FOOLS_MATE = {"f2f3", "e7e5", "g2g4", "d8h4"};
+
+    public static ChessGame play(String[] moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            game.makeMove(parseMove(move));
+        }
+        return game;
+    }
+
+    public static ChessMove parseMove(String move) {
+        ChessPiece.PieceType promotion = null;
+        if (move.length() == 5) {
+            promotion = switch (move.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Bad promotion piece in " + move);
+            };
+        }
+        return new ChessMove(parseSquare(move, 0), parseSquare(move, 2), promotion);
+    }
+
+    private static ChessPosition parseSquare(String move, int index) {
+        return ChessPosition.of(move.charAt(index + 1) - '0', move.charAt(index) - 'a' + 1);
+    }
+}
@@ -482,7 +482,7 @@ public class ChessClient implements NotificationHandler {
             throw new ResponseException(ResponseException.Code.BadRequest, SET_TEXT_COLOR_RED +
                     "Error: could not parse move.\n" + "Expected: <start/end> i.e. a1"+ RESET_TEXT_COLOR);
         }
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     private void printPrompt(){
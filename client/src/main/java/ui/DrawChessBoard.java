@@ -97,7 +97,7 @@ public class DrawChessBoard extends EscapeSequences {
                 int col;
                 if(isWhite){col = boardCol;}
                 else{col = 9 - boardCol;}
-                ChessPosition target = new ChessPosition(rank, col);
+                ChessPosition target = ChessPosition.of(rank, col);
 
                 if(highlight){
                     setSquareColorHighlight(out, rank, col);
@@ -145,7 +145,7 @@ public class DrawChessBoard extends EscapeSequences {
             }
         }
 
-        ChessPosition target = new ChessPosition(rank, col);
+        ChessPosition target = ChessPosition.of(rank, col);
         //piece position highlighted yellow
         if(target.equals(piecePosition)|| piecePosition==null){
             out.print(SET_BG_COLOR_YELLOW);
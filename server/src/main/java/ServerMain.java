@@ -1,8 +1,14 @@
+import chess.PositionCache;
 import server.Server;
 
 public class ServerMain {
     public static void main(String[] args) {
         int requestedPort = 8080;
+        // the server plays many games at once, so unless told otherwise it lets them share
+        // 16 MB of positions already seen
+        if (System.getProperty(PositionCache.BUDGET_PROPERTY) == null) {
+            System.setProperty(PositionCache.BUDGET_PROPERTY, "16");
+        }
         Server server = new Server();
         server.run(requestedPort);
         System.out.println("CS 240 Chess Server is running of port" + requestedPort);
@@ -0,0 +1,341 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of JDBC connections. Borrowed connections are proxies whose close()
+ * hands the real connection back to the pool instead of closing it, so callers keep
+ * using try-with-resources exactly as with DriverManager.
+ * <p>
+ * At most maxSize connections exist at once, a borrower waits up to borrowTimeout for
+ * one to come free. Idle connections are reused newest first and checked with
+ * isValid() before being handed out, unless they came back within validationInterval. A background thread closes connections idle for
+ * longer than idleTimeout (keeping minSize open) and reports connections that have
+ * been borrowed for longer than leakThreshold. Only the borrow time is recorded unless
+ * traceLeaks is on, which also keeps the stack of every borrow to print with the report.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Pool limits, read from db.properties keys starting with db.pool.
+     *
+     * @param minSize                  connections kept open even when idle
+     * @param maxSize                  most connections open at once
+     * @param idleTimeoutMillis        how long a connection above minSize may sit unused
+     * @param borrowTimeoutMillis      how long a borrower waits for a free connection
+     * @param validationTimeoutSeconds how long isValid() may take before the connection is dropped
+     * @param validationIntervalMillis how recently a connection must have been returned to skip isValid(), 0 to always check
+     * @param leakThresholdMillis      how long a connection may be held before it is reported, 0 for never
+     * @param traceLeaks               whether each borrow keeps its stack, so a report shows who held the connection
+     */
+    public record Settings(int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+                           int validationTimeoutSeconds, long validationIntervalMillis, long leakThresholdMillis,
+                           boolean traceLeaks) {
+
+        public static Settings from(Properties props) {
+            return new Settings(
+                    Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                    Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "300000")),
+                    Long.parseLong(props.getProperty("db.pool.borrowTimeoutMillis", "5000")),
+                    Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")),
+                    Long.parseLong(props.getProperty("db.pool.validationIntervalMillis", "0")),
+                    Long.parseLong(props.getProperty("db.pool.leakThresholdMillis", "60000")),
+                    Boolean.parseBoolean(props.getProperty("db.pool.traceLeaks", "false")));
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters
+     *
+     * @param active         connections borrowed right now
+     * @param idle           open connections waiting in the pool
+     * @param borrows        connections handed out
+     * @param timeouts       borrowers that gave up waiting
+     * @param created        connections opened
+     * @param evicted        connections closed for being idle too long or failing validation
+     * @param leaks          borrowed connections reported as held too long
+     * @param totalWaitNanos time borrowers spent waiting for a connection
+     * @param maxWaitNanos   longest single wait
+     */
+    public record Stats(int active, int idle, long borrows, long timeouts, long created, long evicted,
+                        long leaks, long totalWaitNanos, long maxWaitNanos) {
+
+        public double averageWaitMillis() {
+            return borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows;
+        }
+    }
+
+    /**
+     * Opens a new physical connection
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private record Idle(Connection connection, long returnedAt) {
+    }
+
+    private static final class Lease {
+        final Connection connection;
+        final long borrowedAt = System.nanoTime();
+        final Throwable borrower;
+        volatile boolean returned;
+        volatile boolean reported;
+
+        Lease(Connection connection, boolean trace) {
+            this.connection = connection;
+            this.borrower = trace ? new Throwable("Connection borrowed here") : null;
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    // a connection returned this recently is trusted without the isValid() round trip
+    private final long validationIntervalNanos;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Idle> idle = new LinkedBlockingDeque<>();
+    private final Map<Lease, Boolean> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder totalWait = new LongAdder();
+    private final LongAccumulator maxWait = new LongAccumulator(Math::max, 0);
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        if (settings.maxSize() < 1 || settings.minSize() < 0 || settings.minSize() > settings.maxSize()) {
+            throw new IllegalArgumentException("Pool needs 0 <= minSize <= maxSize and maxSize >= 1");
+        }
+        this.factory = factory;
+        this.settings = settings;
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.validationIntervalMillis());
+        this.permits = new Semaphore(settings.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(settings.idleTimeoutMillis(), 30000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hands out a connection, waiting up to borrowTimeout for one to come free
+     *
+     * @throws SQLTransientConnectionException if none came free in time
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("No database connection free after "
+                        + settings.borrowTimeoutMillis() + "ms, " + settings.maxSize() + " in use");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+        try {
+            Connection connection = takeIdle();
+            if (connection == null) {
+                connection = factory.open();
+                created.increment();
+            }
+            long waited = System.nanoTime() - start;
+            totalWait.add(waited);
+            maxWait.accumulate(waited);
+            borrows.increment();
+            active.incrementAndGet();
+            return lease(connection);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // the newest idle connection that still works, or null if there is none
+    private Connection takeIdle() {
+        Idle candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            Connection connection = candidate.connection();
+            if (System.nanoTime() - candidate.returnedAt() < validationIntervalNanos || isValid(connection)) {
+                return connection;
+            }
+            evicted.increment();
+            closeQuietly(connection);
+        }
+        return null;
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(Connection connection) {
+        // filling in a stack trace on every borrow is costly, so it is only done when asked for
+        Lease lease = new Lease(connection, settings.traceLeaks() && settings.leakThresholdMillis() > 0);
+        leases.put(lease, Boolean.TRUE);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            giveBack(lease);
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return lease.returned || connection.isClosed();
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Pooled" + connection;
+                        }
+                        default -> {
+                            if (lease.returned) {
+                                throw new SQLException("Connection has been returned to the pool");
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    }
+                });
+    }
+
+    // puts the connection back with auto-commit on and nothing left open in a transaction
+    private void giveBack(Lease lease) {
+        if (lease.returned) {
+            return;
+        }
+        lease.returned = true;
+        leases.remove(lease);
+        active.decrementAndGet();
+        Connection connection = lease.connection;
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+            } else {
+                idle.offerFirst(new Idle(connection, System.nanoTime()));
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // closes connections idle too long, tops the pool up to minSize and reports leaks
+    private void housekeeping() {
+        long now = System.nanoTime();
+        long idleLimit = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMillis());
+        Idle oldest;
+        while (idle.size() + active.get() > settings.minSize()
+                && (oldest = idle.peekLast()) != null && now - oldest.returnedAt() > idleLimit) {
+            if (idle.removeLastOccurrence(oldest)) {
+                evicted.increment();
+                closeQuietly(oldest.connection());
+            }
+        }
+        while (!closed && idle.size() + active.get() < settings.minSize() && permits.tryAcquire()) {
+            try {
+                idle.offerLast(new Idle(factory.open(), now));
+                created.increment();
+            } catch (SQLException | RuntimeException e) {
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+        reportLeaks(now);
+    }
+
+    private void reportLeaks(long now) {
+        if (settings.leakThresholdMillis() <= 0) {
+            return;
+        }
+        long limit = TimeUnit.MILLISECONDS.toNanos(settings.leakThresholdMillis());
+        for (Lease lease : leases.keySet()) {
+            if (!lease.reported && now - lease.borrowedAt > limit) {
+                lease.reported = true;
+                leaks.increment();
+                System.out.println("Warning: database connection held for "
+                        + TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedAt) + "ms without being closed");
+                if (lease.borrower != null) {
+                    lease.borrower.printStackTrace(System.out);
+                }
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(active.get(), idle.size(), borrows.sum(), timeouts.sum(), created.sum(), evicted.sum(),
+                leaks.sum(), totalWait.sum(), maxWait.get());
+    }
+
+    /**
+     * Runs the idle eviction and leak check now rather than on the next tick
+     */
+    public void runHousekeeping() {
+        housekeeping();
+    }
+
+    /**
+     * Closes the idle connections. Borrowed ones are closed as they come back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        Idle next;
+        while ((next = idle.pollFirst()) != null) {
+            closeQuietly(next.connection());
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // already broken, nothing left to release
+        }
+    }
+}
@@ -9,4 +9,14 @@ public interface GameDOA {
     Collection<GameData> listGames() throws DataAccessException;
     void updateGame(int gameID, GameData newGame) throws DataAccessException;
     boolean gameExists(int gameID) throws DataAccessException;
+
+    /**
+     * Updates several games at once, each under its own gameID. Stores that can write
+     * them together should, this default writes them one at a time.
+     */
+    default void updateGames(Collection<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            updateGame(game.gameID(), game);
+        }
+    }
 }
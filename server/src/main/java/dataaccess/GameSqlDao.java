@@ -1,5 +1,10 @@
 package dataaccess;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.GameCodec;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import model.GameData;
 import java.sql.Connection;
@@ -8,75 +13,153 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Stores each game as a GameCodec snapshot in gameData plus an append-only log of moves in gameMoves.
+ * A move costs one small row, and the snapshot is only rewritten every SNAPSHOT_INTERVAL
+ * plies or when the game ends. A game is rebuilt by replaying the moves logged after
+ * its snapshot.
+ */
 public class GameSqlDao extends SqlDaoManager implements GameDOA {
 
+    // plies logged after a snapshot before the snapshot is rewritten
+    static final int SNAPSHOT_INTERVAL = 20;
+
     public GameSqlDao() throws DataAccessException{
         configureDatabase(createStatements);
     }
 
     @Override
     public void clear() throws DataAccessException {
-        String statement = "TRUNCATE gameData";
-        executeUpdate(statement);
+        executeUpdate("TRUNCATE gameMoves");
+        executeUpdate("TRUNCATE gameData");
     }
 
     @Override
     public void createGame(GameData newGame) throws DataAccessException {
-        String statement = "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, chessGame) VALUES (?,?,?,?,?)";
-        executeUpdate(statement, newGame.gameID(), newGame.whiteUsername(),
-                newGame.blackUsername(), newGame.gameName(), newGame.game());
-
+        List<ChessMove> moves = new ArrayList<>(newGame.game().getGameMoves());
+        try(Connection conn = DatabaseManager.getConnection()){
+            conn.setAutoCommit(false);
+            String statement = "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, chessGame, snapshotPly) VALUES (?,?,?,?,?,?)";
+            try(PreparedStatement ps = conn.prepareStatement(statement)){
+                bind(ps, newGame.gameID(), newGame.whiteUsername(), newGame.blackUsername(),
+                        newGame.gameName(), newGame.game(), moves.size());
+                ps.executeUpdate();
+            }
+            appendMoves(conn, newGame.gameID(), moves, 0);
+            conn.commit();
+        } catch(SQLException e){
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException{
         try(Connection conn = DatabaseManager.getConnection()){
-            String statement = "SELECT gameID, whiteUsername, blackUsername, gameName, chessGame FROM gameData WHERE gameID=?";
+            String statement = "SELECT gameID, whiteUsername, blackUsername, gameName, chessGame, snapshotPly FROM gameData WHERE gameID=?";
             try(PreparedStatement ps = conn.prepareStatement(statement)){
                 ps.setInt(1,gameID);
                 try(ResultSet rs = ps.executeQuery()){
-                    if(rs.next()){
-                        return readGame(rs);
+                    if(!rs.next()){
+                        return null;
                     }
+                    GameData game = readGame(rs);
+                    String moves = "SELECT move FROM gameMoves WHERE gameID=? AND ply>? ORDER BY ply";
+                    try(PreparedStatement movePs = conn.prepareStatement(moves)){
+                        movePs.setInt(1, gameID);
+                        movePs.setInt(2, rs.getInt("snapshotPly"));
+                        try(ResultSet moveRs = movePs.executeQuery()){
+                            while(moveRs.next()){
+                                replay(game, moveRs.getString("move"));
+                            }
+                        }
+                    }
+                    return game;
                 }
             }
         }catch(SQLException e){
             throw new DataAccessException(e.getMessage());
         }
-        return null;
     }
 
 
     @Override
     public Collection<GameData> listGames() throws DataAccessException{
-        Collection<GameData> games = new ArrayList<>();
+        Map<Integer, GameData> games = new HashMap<>();
+        Collection<GameData> ordered = new ArrayList<>();
         try(Connection conn = DatabaseManager.getConnection()){
             String statement = "SELECT gameID, whiteUsername, blackUsername, gameName, chessGame FROM gameData";
             try(PreparedStatement ps = conn.prepareStatement(statement)){
                 ResultSet rs = ps.executeQuery();
                 while(rs.next()){
-                    games.add(readGame(rs));
+                    GameData game = readGame(rs);
+                    games.put(game.gameID(), game);
+                    ordered.add(game);
+                }
+            }
+            // every game's moves since its snapshot in one round trip
+            String moves = """
+                    SELECT m.gameID, m.move FROM gameMoves m JOIN gameData g ON m.gameID=g.gameID
+                    WHERE m.ply>g.snapshotPly ORDER BY m.gameID, m.ply""";
+            try(PreparedStatement ps = conn.prepareStatement(moves)){
+                ResultSet rs = ps.executeQuery();
+                while(rs.next()){
+                    GameData game = games.get(rs.getInt("gameID"));
+                    if(game != null){
+                        replay(game, rs.getString("move"));
+                    }
                 }
             }
         }catch(SQLException e ){
                 throw new DataAccessException(e.getMessage());
         }
-        return games;
+        return ordered;
     }
 
     @Override
     public void updateGame(int gameID, GameData newGame) throws DataAccessException{
-        String statement = "UPDATE gameData SET whiteUsername=?, blackUsername=?, gameName=?, chessGame=? WHERE gameID=?";
-        executeUpdate(statement, newGame.whiteUsername(), newGame.blackUsername(), newGame.gameName(), newGame.game(), gameID);
+        try(Connection conn = DatabaseManager.getConnection()){
+            conn.setAutoCommit(false);
+            logUpdate(conn, gameID, newGame);
+            conn.commit();
+        } catch(SQLException e){
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
     }
 
+    /**
+     * Updates every game in one transaction, so the batch costs a single commit. Rows
+     * are locked in the order given, callers writing batches concurrently should sort
+     * them by gameID.
+     */
     @Override
-    public boolean gameExists(int gameID) {
-        try{
-            return getGame(gameID) !=null;
-        }catch(DataAccessException e) {
-            return false;
+    public void updateGames(Collection<GameData> games) throws DataAccessException{
+        try(Connection conn = DatabaseManager.getConnection()){
+            conn.setAutoCommit(false);
+            for(GameData game : games){
+                logUpdate(conn, game.gameID(), game);
+            }
+            conn.commit();
+        } catch(SQLException e){
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    // looks for the row alone, without reading the snapshot or replaying the move log
+    @Override
+    public boolean gameExists(int gameID) throws DataAccessException {
+        try(Connection conn = DatabaseManager.getConnection()){
+            try(PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM gameData WHERE gameID=?")){
+                ps.setInt(1, gameID);
+                try(ResultSet rs = ps.executeQuery()){
+                    return rs.next();
+                }
+            }
+        }catch(SQLException e){
+            throw new DataAccessException(e.getMessage());
         }
     }
 
@@ -87,19 +170,220 @@ public class GameSqlDao extends SqlDaoManager implements GameDOA {
             whiteUsername VARCHAR(255),
             blackUsername VARCHAR(255),
             gameName VARCHAR(255) NOT NULL,
-            chessGame TEXT NOT NULL,
+            chessGame BLOB NOT NULL,
+            snapshotPly INT NOT NULL DEFAULT 0,
             PRIMARY KEY(gameID)
+            )""",
+            """
+            CREATE TABLE IF NOT EXISTS gameMoves (
+            gameID INT NOT NULL,
+            ply INT NOT NULL,
+            move VARCHAR(5) NOT NULL,
+            PRIMARY KEY(gameID, ply)
             )"""
     };
 
+    /**
+     * Logs the moves played since the last update and rewrites the players and name.
+     * The full game is only written when the snapshot is due, the game has ended, or
+     * the game has fewer moves than were logged. A game that does not exist is left alone.
+     */
+    private void logUpdate(Connection conn, int gameID, GameData newGame) throws SQLException{
+        ChessGame game = newGame.game();
+        List<ChessMove> moves = new ArrayList<>(game.getGameMoves());
+        int ply = moves.size();
+        int snapshotPly;
+        int loggedPly;
+        String lock = "SELECT snapshotPly, (SELECT COALESCE(MAX(ply),0) FROM gameMoves WHERE gameID=?) AS loggedPly FROM gameData WHERE gameID=? FOR UPDATE";
+        try(PreparedStatement ps = conn.prepareStatement(lock)){
+            bind(ps, gameID, gameID);
+            try(ResultSet rs = ps.executeQuery()){
+                if(!rs.next()){
+                    return;
+                }
+                snapshotPly = rs.getInt("snapshotPly");
+                loggedPly = rs.getInt("loggedPly");
+            }
+        }
+        boolean snapshot = ply - snapshotPly >= SNAPSHOT_INTERVAL || game.gameOver();
+        if(ply < loggedPly){
+            try(PreparedStatement ps = conn.prepareStatement("DELETE FROM gameMoves WHERE gameID=? AND ply>?")){
+                bind(ps, gameID, ply);
+                ps.executeUpdate();
+            }
+            snapshot = true;
+        }
+        appendMoves(conn, gameID, moves, loggedPly);
+        if(snapshot){
+            String statement = "UPDATE gameData SET whiteUsername=?, blackUsername=?, gameName=?, chessGame=?, snapshotPly=? WHERE gameID=?";
+            try(PreparedStatement ps = conn.prepareStatement(statement)){
+                bind(ps, newGame.whiteUsername(), newGame.blackUsername(), newGame.gameName(), game, ply, gameID);
+                ps.executeUpdate();
+            }
+        } else {
+            String statement = "UPDATE gameData SET whiteUsername=?, blackUsername=?, gameName=? WHERE gameID=?";
+            try(PreparedStatement ps = conn.prepareStatement(statement)){
+                bind(ps, newGame.whiteUsername(), newGame.blackUsername(), newGame.gameName(), gameID);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    @Override
+    protected void upgradeSchema(Connection conn) throws SQLException {
+        // gameData tables from before the move log have no snapshotPly, their snapshot holds every move
+        if(columnType(conn, "snapshotPly") == null){
+            execute(conn, "ALTER TABLE gameData ADD COLUMN snapshotPly INT NOT NULL DEFAULT 0");
+            execute(conn, "UPDATE gameData SET snapshotPly=COALESCE(JSON_LENGTH(chessGame, '$.gameMoves'), 0)");
+        }
+        if("text".equalsIgnoreCase(columnType(conn, "chessGame"))){
+            convertJsonGames(conn);
+        }
+    }
+
+    // rewrites Gson snapshots with GameCodec into a new column, then swaps it in. Rows
+    // already converted by an interrupted run are skipped. A row that can not be read
+    // stops the upgrade before the JSON column is dropped.
+    private void convertJsonGames(Connection conn) throws SQLException{
+        if(columnType(conn, "chessGameBinary") == null){
+            execute(conn, "ALTER TABLE gameData ADD COLUMN chessGameBinary BLOB NULL");
+        }
+        Gson gson = new Gson();
+        int converted = 0;
+        try(PreparedStatement select = conn.prepareStatement("SELECT gameID, chessGame FROM gameData WHERE chessGameBinary IS NULL");
+            PreparedStatement update = conn.prepareStatement("UPDATE gameData SET chessGameBinary=? WHERE gameID=?");
+            ResultSet rs = select.executeQuery()){
+            while(rs.next()){
+                int gameID = rs.getInt("gameID");
+                update.setBytes(1, convertJsonGame(gson, gameID, rs.getString("chessGame")));
+                update.setInt(2, gameID);
+                update.addBatch();
+                if(++converted % 500 == 0){
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+        execute(conn, "ALTER TABLE gameData DROP COLUMN chessGame, CHANGE COLUMN chessGameBinary chessGame BLOB NOT NULL");
+        System.out.println("Converted " + converted + " stored games to the binary format");
+    }
+
+    /**
+     * Reads a game stored as JSON, in the current layout or the older 8x8 board grid, and
+     * encodes it with GameCodec. The game must have both kings and read back from its
+     * encoding unchanged.
+     *
+     * @throws SQLException if the game can not be converted faithfully
+     */
+    static byte[] convertJsonGame(Gson gson, int gameID, String json) throws SQLException{
+        ChessGame game;
+        try{
+            game = gson.fromJson(json, ChessGame.class);
+        }catch(RuntimeException e){
+            throw new SQLException("Stored game " + gameID + " is not readable JSON: " + e.getMessage(), e);
+        }
+        if(game == null || game.getBoard() == null || game.getTeamTurn() == null){
+            throw new SQLException("Stored game " + gameID + " has no board or team to move");
+        }
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()){
+            try{
+                game.findKing(color, game.getBoard());
+            }catch(RuntimeException e){
+                throw new SQLException("Stored game " + gameID + " has no " + color + " king");
+            }
+        }
+        byte[] encoded = GameCodec.encode(game);
+        ChessGame decoded = GameCodec.decode(encoded);
+        if(!decoded.toFen().equals(game.toFen()) || !decoded.getGameMoves().equals(game.getGameMoves())){
+            throw new SQLException("Stored game " + gameID + " does not survive conversion");
+        }
+        return encoded;
+    }
+
+    // the column's data type, or null if gameData has no such column
+    private static String columnType(Connection conn, String column) throws SQLException{
+        String statement = "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA=DATABASE() AND TABLE_NAME='gameData' AND COLUMN_NAME=?";
+        try(PreparedStatement ps = conn.prepareStatement(statement)){
+            ps.setString(1, column);
+            try(ResultSet rs = ps.executeQuery()){
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static void execute(Connection conn, String statement) throws SQLException{
+        try(PreparedStatement ps = conn.prepareStatement(statement)){
+            ps.executeUpdate();
+        }
+    }
+
+    // logs moves after the first {@code from} plies, numbering plies from 1
+    private void appendMoves(Connection conn, int gameID, List<ChessMove> moves, int from) throws SQLException{
+        if(from >= moves.size()){
+            return;
+        }
+        try(PreparedStatement ps = conn.prepareStatement("INSERT INTO gameMoves (gameID, ply, move) VALUES (?,?,?)")){
+            for(int ply = from + 1; ply <= moves.size(); ply++){
+                bind(ps, gameID, ply, toUci(moves.get(ply - 1)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void replay(GameData game, String move) throws SQLException{
+        try{
+            game.game().makeMove(fromUci(move));
+        }catch(InvalidMoveException e){
+            throw new SQLException("Logged move " + move + " of game " + game.gameID() + " does not replay", e);
+        }
+    }
+
+    // long algebraic notation as UCI writes it, e.g. e2e4 or e7e8q
+    static String toUci(ChessMove move){
+        StringBuilder uci = new StringBuilder(5);
+        appendSquare(uci, move.getStartPosition());
+        appendSquare(uci, move.getEndPosition());
+        if(move.getPromotionPiece() != null){
+            uci.append(switch (move.getPromotionPiece()){
+                case QUEEN -> 'q';
+                case ROOK -> 'r';
+                case BISHOP -> 'b';
+                default -> 'n';
+            });
+        }
+        return uci.toString();
+    }
+
+    static ChessMove fromUci(String uci){
+        ChessPiece.PieceType promotion = null;
+        if(uci.length() == 5){
+            promotion = switch (uci.charAt(4)){
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                default -> ChessPiece.PieceType.KNIGHT;
+            };
+        }
+        return new ChessMove(ChessPosition.of(uci.charAt(1) - '0', uci.charAt(0) - 'a' + 1),
+                ChessPosition.of(uci.charAt(3) - '0', uci.charAt(2) - 'a' + 1), promotion);
+    }
+
+    private static void appendSquare(StringBuilder out, ChessPosition position){
+        out.append((char) ('a' + position.getColumn() - 1)).append(position.getRow());
+    }
+
     private GameData readGame(ResultSet rs) throws SQLException{
         int gameID = rs.getInt("gameID");
         String whiteUsername = rs.getString("whiteUsername");
         String blackUsername = rs.getString("blackUsername");
         String gameName = rs.getString("gameName");
-        String json = rs.getString("chessGame");
-        ChessGame chessGame = new Gson().fromJson(json, ChessGame.class);
+        ChessGame chessGame;
+        try{
+            chessGame = GameCodec.decode(rs.getBytes("chessGame"));
+        }catch(IllegalArgumentException e){
+            throw new SQLException("Stored game " + gameID + " can not be read: " + e.getMessage(), e);
+        }
         return new GameData(gameID, whiteUsername, blackUsername, gameName, chessGame);
     }
 }
-
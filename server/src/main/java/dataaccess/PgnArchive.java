@@ -0,0 +1,83 @@
+package dataaccess;
+
+import chess.PgnReader;
+import chess.PgnWriter;
+import model.GameData;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk import and export of the gameData table as PGN. Imported games get consecutive
+ * IDs, the PGN White and Black players as usernames and the Event as the game name.
+ */
+public class PgnArchive {
+    private final GameDOA gameDao;
+
+    public PgnArchive(GameDOA gameDao) {
+        this.gameDao = gameDao;
+    }
+
+    /**
+     * Reads a PGN file on the given number of threads and creates a game for each
+     * readable game in it. The DAO is called from every reading thread at once.
+     *
+     * @param firstGameID the ID of the first game created, the rest follow on from it
+     * @return how many games were created and how many were skipped as unreadable
+     */
+    public PgnReader.Totals importGames(Path pgn, int firstGameID, int threads)
+            throws DataAccessException, IOException {
+        AtomicInteger nextID = new AtomicInteger(firstGameID);
+        try {
+            return PgnReader.readParallel(pgn, threads, game -> {
+                String white = game.tag("White");
+                String black = game.tag("Black");
+                String name = game.tags().getOrDefault("Event", white + " vs " + black);
+                try {
+                    gameDao.createGame(new GameData(nextID.getAndIncrement(), white, black, name, game.toGame()));
+                } catch (DataAccessException e) {
+                    throw new ImportFailure(e);
+                }
+            });
+        } catch (ImportFailure e) {
+            throw e.cause;
+        }
+    }
+
+    /**
+     * Writes every stored game as PGN, with SetUp and FEN tags for games that did not
+     * start from the initial position
+     *
+     * @return how many games were written
+     */
+    public int exportGames(Writer out) throws DataAccessException, IOException {
+        PgnWriter writer = new PgnWriter(out);
+        int count = 0;
+        for (GameData game : gameDao.listGames()) {
+            Map<String, String> tags = new LinkedHashMap<>();
+            tags.put("Event", game.gameName());
+            tags.put("White", game.whiteUsername());
+            tags.put("Black", game.blackUsername());
+            tags.put("GameID", Integer.toString(game.gameID()));
+            tags.values().removeIf(value -> value == null);
+            writer.write(game.game(), tags);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    // carries a DataAccessException out of the reader's consumer
+    private static final class ImportFailure extends RuntimeException {
+        private final DataAccessException cause;
+
+        ImportFailure(DataAccessException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+}
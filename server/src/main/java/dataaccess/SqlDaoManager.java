@@ -1,27 +1,26 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.GameCodec;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 
 public abstract class SqlDaoManager {
 
+    // DAO classes whose tables have already been created in this JVM
+    private static final Set<Class<?>> CONFIGURED = ConcurrentHashMap.newKeySet();
+
     protected int executeUpdate(String statement, Object... params) throws DataAccessException {
         try(Connection conn = DatabaseManager.getConnection()){
             try(PreparedStatement ps = conn.prepareStatement(statement,RETURN_GENERATED_KEYS)){
-                for(int i =0; i<params.length;i++){
-                    Object param = params[i];
-                    if(param instanceof Integer p){ ps.setInt(i+1, p);}
-                    else if(param instanceof String p){ ps.setString(i+1, p);}
-                    else if(param instanceof ChessGame p){ ps.setString(i+1, new Gson().toJson(p));}
-                    else if(param==null){ ps.setNull(i+1, java.sql.Types.VARCHAR);}
-                }
+                bind(ps, params);
                 ps.executeUpdate();
 
                 ResultSet rs = ps.getGeneratedKeys();
@@ -33,16 +32,47 @@ public abstract class SqlDaoManager {
         }
     }
 
+    protected static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        for(int i =0; i<params.length;i++){
+            Object param = params[i];
+            if(param instanceof Integer p){ ps.setInt(i+1, p);}
+            else if(param instanceof String p){ ps.setString(i+1, p);}
+            else if(param instanceof ChessGame p){ ps.setBytes(i+1, GameCodec.encode(p));}
+            else if(param==null){ ps.setNull(i+1, java.sql.Types.VARCHAR);}
+        }
+    }
+
+    /**
+     * Creates the database and this DAO's tables the first time a DAO of this class is
+     * constructed in the JVM. Later DAOs of the same class skip the DDL round trips.
+     */
     protected void configureDatabase(String[] createStatements) throws DataAccessException{
-        DatabaseManager.createDatabase();
-        try(Connection conn = DatabaseManager.getConnection()){
-            for (String statement : createStatements){
-                try(var preparedStatement = conn.prepareStatement(statement)){
-                    preparedStatement.executeUpdate();
+        if(CONFIGURED.contains(getClass())){
+            return;
+        }
+        synchronized (CONFIGURED) {
+            if(CONFIGURED.contains(getClass())){
+                return;
+            }
+            DatabaseManager.createDatabase();
+            try(Connection conn = DatabaseManager.getConnection()){
+                for (String statement : createStatements){
+                    try(var preparedStatement = conn.prepareStatement(statement)){
+                        preparedStatement.executeUpdate();
+                    }
                 }
+                upgradeSchema(conn);
+            } catch(SQLException e){
+                throw new DataAccessException("Unable to configure Database: " + e.getMessage(), e);
             }
-        } catch(SQLException e){
-            throw new DataAccessException("Unable to configure Database");
+            CONFIGURED.add(getClass());
         }
     }
+
+    /**
+     * Brings tables created by an older version of the DAO up to date. Runs once per JVM,
+     * after the create statements.
+     */
+    protected void upgradeSchema(Connection conn) throws SQLException {
+    }
 }
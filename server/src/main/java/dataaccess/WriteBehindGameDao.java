@@ -0,0 +1,259 @@
+package dataaccess;
+
+import chess.GameCodec;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the games being played in memory and writes them to another GameDOA in the
+ * background, so an update returns without waiting for the database. Updates to a game
+ * made between two flushes collapse into one write of its latest state, and each flush
+ * writes up to batchSize games with a single updateGames call.
+ * <p>
+ * Two bounds limit how far the store can fall behind: a background thread flushes every
+ * update within about maxLag, and an update to a game already maxPendingMoves moves
+ * ahead of the store first waits for that game to be written. New games are written
+ * straight through. Callers always get copies, so a game being changed by a caller is
+ * never the one being written.
+ */
+public class WriteBehindGameDao implements GameDOA, AutoCloseable {
+
+    /**
+     * Write-behind limits, read from db.properties keys starting with db.writeBehind.
+     *
+     * @param enabled         whether the server puts this in front of the SQL store at all
+     * @param maxLagMillis    how long an update may wait in memory before it is written
+     * @param maxPendingMoves how many moves a game may be ahead of the store before updates to it wait
+     * @param batchSize       most games written in one transaction
+     */
+    public record Settings(boolean enabled, long maxLagMillis, int maxPendingMoves, int batchSize) {
+
+        public static Settings from(Properties props) {
+            return new Settings(
+                    Boolean.parseBoolean(props.getProperty("db.writeBehind.enabled", "false")),
+                    Long.parseLong(props.getProperty("db.writeBehind.maxLagMillis", "200")),
+                    Integer.parseInt(props.getProperty("db.writeBehind.maxPendingMoves", "10")),
+                    Integer.parseInt(props.getProperty("db.writeBehind.batchSize", "100")));
+        }
+    }
+
+    // games nobody has read or changed for this long, and with nothing left to write, are dropped
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    // the latest state of a game not yet written, and how many moves the store has of it
+    private record Pending(GameData game, int storedPlies) {
+    }
+
+    private record Live(GameData game, long touchedAt) {
+    }
+
+    private final GameDOA store;
+    private final Settings settings;
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<Integer, Live> live = new ConcurrentHashMap<>();
+    // writes go out one batch at a time, so an older state of a game never lands after a newer one
+    private final Object writeLock = new Object();
+    // updates to one game run one at a time, so live and pending always hold the same state.
+    // A game's lock is taken before writeLock, never after.
+    private final Object[] gameLocks = new Object[64];
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    public WriteBehindGameDao(GameDOA store, Settings settings) {
+        if (settings.maxLagMillis() < 1 || settings.maxPendingMoves() < 1 || settings.batchSize() < 1) {
+            throw new IllegalArgumentException("Write-behind needs maxLag, maxPendingMoves and batchSize of at least 1");
+        }
+        this.store = store;
+        this.settings = settings;
+        for (int i = 0; i < gameLocks.length; i++) {
+            gameLocks[i] = new Object();
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, settings.maxLagMillis() / 2);
+        flusher.scheduleWithFixedDelay(this::backgroundFlush, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        synchronized (writeLock) {
+            pending.clear();
+            live.clear();
+            store.clear();
+        }
+    }
+
+    @Override
+    public void createGame(GameData newGame) throws DataAccessException {
+        store.createGame(newGame);
+        live.put(newGame.gameID(), new Live(copy(newGame.gameID(), newGame), System.nanoTime()));
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        GameData game = inMemory(gameID);
+        if (game != null) {
+            live.computeIfPresent(gameID, (id, entry) -> new Live(entry.game(), System.nanoTime()));
+            return game;
+        }
+        game = store.getGame(gameID);
+        if (game != null) {
+            live.putIfAbsent(gameID, new Live(copy(gameID, game), System.nanoTime()));
+        }
+        return game;
+    }
+
+    /**
+     * Lists the stored games, with the ones held in memory in their latest state
+     */
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        Collection<GameData> stored = store.listGames();
+        List<GameData> games = new ArrayList<>(stored.size());
+        for (GameData game : stored) {
+            GameData latest = inMemory(game.gameID());
+            games.add(latest == null ? game : latest);
+        }
+        return games;
+    }
+
+    /**
+     * Takes the update into memory and returns, leaving the write to the background
+     * thread. If the game is already maxPendingMoves ahead of the store, the caller
+     * writes it first, and on failure the update is not taken. Updates to the same game
+     * are applied one at a time.
+     */
+    @Override
+    public void updateGame(int gameID, GameData newGame) throws DataAccessException {
+        synchronized (gameLocks[gameID & (gameLocks.length - 1)]) {
+            GameData current = getGame(gameID);
+            if (current == null) {
+                // same as the store: updating a game that does not exist changes nothing
+                return;
+            }
+            Pending waiting = pending.get(gameID);
+            if (waiting != null && plies(waiting.game()) - waiting.storedPlies() >= settings.maxPendingMoves()) {
+                write(List.of(gameID));
+            }
+            GameData latest = copy(gameID, newGame);
+            live.put(gameID, new Live(latest, System.nanoTime()));
+            pending.merge(gameID, new Pending(latest, plies(current)),
+                    (older, newer) -> new Pending(newer.game(), older.storedPlies()));
+        }
+    }
+
+    @Override
+    public boolean gameExists(int gameID) throws DataAccessException {
+        return pending.containsKey(gameID) || live.containsKey(gameID) || store.gameExists(gameID);
+    }
+
+    /**
+     * @return how many games have updates not yet written
+     */
+    public int pendingGames() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending update now, in batches of batchSize ordered by gameID
+     *
+     * @throws DataAccessException if a batch could not be written, it stays pending
+     */
+    public void flush() throws DataAccessException {
+        List<Integer> gameIDs = new ArrayList<>(pending.keySet());
+        gameIDs.sort(null);
+        for (int start = 0; start < gameIDs.size(); start += settings.batchSize()) {
+            write(gameIDs.subList(start, Math.min(gameIDs.size(), start + settings.batchSize())));
+        }
+    }
+
+    // writes the latest state of the given games in one call. On failure they go back to
+    // pending, behind any newer update that came in meanwhile.
+    private void write(List<Integer> gameIDs) throws DataAccessException {
+        synchronized (writeLock) {
+            List<Pending> batch = new ArrayList<>(gameIDs.size());
+            for (int gameID : gameIDs) {
+                Pending next = pending.remove(gameID);
+                if (next != null) {
+                    batch.add(next);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<GameData> games = new ArrayList<>(batch.size());
+            for (Pending next : batch) {
+                games.add(next.game());
+            }
+            try {
+                store.updateGames(games);
+            } catch (DataAccessException | RuntimeException e) {
+                for (Pending failed : batch) {
+                    pending.merge(failed.game().gameID(), failed,
+                            (newer, older) -> new Pending(newer.game(), older.storedPlies()));
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void backgroundFlush() {
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException e) {
+            System.out.println("Warning: could not write " + pending.size() + " games, retrying: " + e.getMessage());
+        }
+        long now = System.nanoTime();
+        live.entrySet().removeIf(entry -> !pending.containsKey(entry.getKey())
+                && now - entry.getValue().touchedAt() > IDLE_NANOS);
+    }
+
+    // a copy of the game's latest state if it is held in memory, otherwise null
+    private GameData inMemory(int gameID) {
+        Pending waiting = pending.get(gameID);
+        if (waiting != null) {
+            return copy(gameID, waiting.game());
+        }
+        Live entry = live.get(gameID);
+        return entry == null ? null : copy(gameID, entry.game());
+    }
+
+    private static GameData copy(int gameID, GameData game) {
+        return new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                game.game() == null ? null : GameCodec.decode(GameCodec.encode(game.game())));
+    }
+
+    private static int plies(GameData game) {
+        return game.game() == null ? 0 : game.game().getGameMoves().size();
+    }
+
+    /**
+     * Stops the background thread and writes everything still pending
+     */
+    @Override
+    public void close() throws DataAccessException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(settings.maxLagMillis() + 5000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
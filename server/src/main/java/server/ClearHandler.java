@@ -7,9 +7,15 @@ import java.util.Map;
 
 
 public class ClearHandler {
-        public static void serviceClear(Context ctx) {
+
+        private final ClearService service;
+
+        public ClearHandler(ClearService service) {
+            this.service = service;
+        }
+
+        public void serviceClear(Context ctx) {
             try {
-                ClearService service = new ClearService();
                 service.clear();
                 ctx.status(200);
                 ctx.result("{}");
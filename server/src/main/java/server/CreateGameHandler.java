@@ -11,14 +11,20 @@ import service.CreateGameService;
 import java.util.Map;
 
 public class CreateGameHandler {
-    public static void serviceCreateGame(Context ctx){
+
+    private final CreateGameService service;
+
+    public CreateGameHandler(CreateGameService service) {
+        this.service = service;
+    }
+
+    public void serviceCreateGame(Context ctx){
         try{
             CreateGameRequest request = JsonDecoder.makeCreateGameRequest(ctx);
             String authToken = JsonDecoder.getAuthToken(ctx);
             if(authToken == null || request.gameName()==null){
                 throw new BadRequestException("Error: bad request");
             }
-            CreateGameService service = new CreateGameService();
             CreateGameResult result = service.createGame(request, authToken);
             ctx.status(200);
             ctx.result(new Gson().toJson(result));
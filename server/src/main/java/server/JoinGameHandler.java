@@ -11,14 +11,19 @@ import java.util.Map;
 
 public class JoinGameHandler {
 
-    public static void serviceJoinGame(Context ctx){
+    private final JoinGameService service;
+
+    public JoinGameHandler(JoinGameService service) {
+        this.service = service;
+    }
+
+    public void serviceJoinGame(Context ctx){
         try{
             String authToken = JsonDecoder.getAuthToken(ctx);
             JoinGameRequest request = JsonDecoder.makeJoinRequest(ctx);
             if(request.playerColor()==null||request.gameID()==0){
                 throw new BadRequestException("Error: bad request");
             }
-            JoinGameService service = new JoinGameService();
             service.joinGame(authToken, request);
             ctx.status(200);
             ctx.result("{}");
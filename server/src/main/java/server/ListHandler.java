@@ -13,13 +13,18 @@ import java.util.Map;
 
 public class ListHandler {
 
-    public static void serviceList(Context ctx){
+    private final ListService service;
+
+    public ListHandler(ListService service) {
+        this.service = service;
+    }
+
+    public void serviceList(Context ctx){
         try{
             String authToken = JsonDecoder.getAuthToken(ctx);
             if(authToken == null){
                 throw new DataAccessException("Error: bad request");
             }
-            ListService service = new ListService();
             ListofListResult result = service.listGames(authToken);
             ctx.status(200);
             ctx.result(new Gson().toJson(result));
@@ -33,7 +38,7 @@ public class ListHandler {
             ctx.result(new Gson().toJson(Map.of("message", "Error" + e.getMessage())));
         }
     }
-    public static void serviceGetGame(Context ctx) throws Exception{
+    public void serviceGetGame(Context ctx) throws Exception{
 
         try{
             String authToken = JsonDecoder.getAuthToken(ctx);
@@ -42,7 +47,6 @@ public class ListHandler {
             if(authToken==null){
                 throw new DataAccessException("Error: bad request");
             }
-            ListService service = new ListService();
             GameData result = service.getGame(gameID, authToken);
             ctx.status(200);
             ctx.result(new Gson().toJson(result));
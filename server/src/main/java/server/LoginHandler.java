@@ -12,13 +12,18 @@ import java.util.Map;
 
 public class LoginHandler {
 
-    public static void serviceLogin(Context ctx){
+    private final LoginService service;
+
+    public LoginHandler(LoginService service) {
+        this.service = service;
+    }
+
+    public void serviceLogin(Context ctx){
         try{
             LoginRequest request = JsonDecoder.makeLoginRequest(ctx);
             if(request.username() == null || request.password()==null){
                 throw new BadRequestException("Error: bad request");
             }
-            LoginService service = new LoginService();
             LoginResult result = service.loginUser(request);
             ctx.status(200);
             ctx.result(new Gson().toJson(result));
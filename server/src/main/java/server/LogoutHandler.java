@@ -8,10 +8,15 @@ import java.util.Map;
 
 public class LogoutHandler {
 
-    public static void serviceLogout(Context ctx){
+    private final LogoutService service;
+
+    public LogoutHandler(LogoutService service) {
+        this.service = service;
+    }
+
+    public void serviceLogout(Context ctx){
         try{
             String authToken = JsonDecoder.getAuthToken(ctx);
-            LogoutService service = new LogoutService();
             service.logoutUser(authToken);
             ctx.status(200);
             ctx.result("{}");
@@ -10,13 +10,19 @@ import service.RegisterService;
 import java.util.Map;
 
 public class RegisterHandler {
-    public static void serviceRegister(Context ctx){
+
+    private final RegisterService service;
+
+    public RegisterHandler(RegisterService service) {
+        this.service = service;
+    }
+
+    public void serviceRegister(Context ctx){
         try{
             RegisterRequest request = JsonDecoder.makeRegisterRequest(ctx);
             if(request.username() == null || request.password() == null || request.email()== null){
                 throw new BadRequestException("Error: bad request");
             }
-            RegisterService service = new RegisterService();
             RegisterResult result = service.registerUser(request);
             ctx.status(200);
             ctx.result(new Gson().toJson(result));
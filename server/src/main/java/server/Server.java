@@ -1,14 +1,54 @@
 package server;
+import dataaccess.*;
 import io.javalin.*;
 import server.websocket.WebSocketHandler;
+import service.*;
 
 public class Server {
 
     private final Javalin javalin;
     private final WebSocketHandler webSocketHandler;
+    private final ClearHandler clearHandler;
+    private final RegisterHandler registerHandler;
+    private final LoginHandler loginHandler;
+    private final LogoutHandler logoutHandler;
+    private final ListHandler listHandler;
+    private final CreateGameHandler createGameHandler;
+    private final JoinGameHandler joinGameHandler;
+    // null unless db.writeBehind.enabled is set
+    private final WriteBehindGameDao writeBehind;
 
+    /**
+     * Creates the database schema and the DAOs once, and shares them between every
+     * service and handler, so requests go straight to their queries. With write-behind
+     * turned on, games in play are served from memory and written in the background.
+     */
     public Server() {
-        webSocketHandler = new WebSocketHandler();
+        UserDOA userDao;
+        AuthDOA authDao;
+        GameDOA gameDao;
+        try {
+            userDao = new UserSqlDao();
+            authDao = new AuthSqlDao();
+            gameDao = new GameSqlDao();
+        }catch(DataAccessException e){
+            throw new RuntimeException("Error: Could not initialize or connect to Database");
+        }
+        WriteBehindGameDao.Settings writeBehindSettings = DatabaseManager.writeBehindSettings();
+        if(writeBehindSettings.enabled()){
+            writeBehind = new WriteBehindGameDao(gameDao, writeBehindSettings);
+            gameDao = writeBehind;
+        }else{
+            writeBehind = null;
+        }
+        webSocketHandler = new WebSocketHandler(authDao, gameDao);
+        clearHandler = new ClearHandler(new ClearService(userDao, authDao, gameDao));
+        registerHandler = new RegisterHandler(new RegisterService(userDao, authDao));
+        loginHandler = new LoginHandler(new LoginService(userDao, authDao));
+        logoutHandler = new LogoutHandler(new LogoutService(authDao));
+        listHandler = new ListHandler(new ListService(authDao, gameDao));
+        createGameHandler = new CreateGameHandler(new CreateGameService(gameDao, authDao));
+        joinGameHandler = new JoinGameHandler(new JoinGameService(gameDao, authDao));
         javalin = Javalin.create(config -> config.staticFiles.add("web"));
         createHandlers(javalin);
     }
@@ -19,14 +59,14 @@ public class Server {
     }
 
     public void createHandlers(Javalin javalinServer){
-        javalinServer.delete("/db", ClearHandler::serviceClear);
-        javalinServer.post("/user", RegisterHandler::serviceRegister);
-        javalinServer.post("/session", LoginHandler::serviceLogin);
-        javalinServer.delete("/session", LogoutHandler::serviceLogout);
-        javalinServer.get("/game", ListHandler::serviceList);
-        javalinServer.post("/game", CreateGameHandler::serviceCreateGame);
-        javalinServer.put("/game", JoinGameHandler::serviceJoinGame);
-        javalinServer.get("/session",ListHandler::serviceGetGame);
+        javalinServer.delete("/db", clearHandler::serviceClear);
+        javalinServer.post("/user", registerHandler::serviceRegister);
+        javalinServer.post("/session", loginHandler::serviceLogin);
+        javalinServer.delete("/session", logoutHandler::serviceLogout);
+        javalinServer.get("/game", listHandler::serviceList);
+        javalinServer.post("/game", createGameHandler::serviceCreateGame);
+        javalinServer.put("/game", joinGameHandler::serviceJoinGame);
+        javalinServer.get("/session", listHandler::serviceGetGame);
 
         javalinServer.ws("/ws", ws-> {
             ws.onConnect( webSocketHandler::handleConnect);
@@ -36,7 +76,19 @@ public class Server {
         });
     }
 
+    /**
+     * Stops taking requests, writes any game updates still held in memory, then closes
+     * the database connections
+     */
     public void stop() {
         javalin.stop();
+        if(writeBehind != null){
+            try {
+                writeBehind.close();
+            }catch(DataAccessException e){
+                System.out.println("Error: could not write " + writeBehind.pendingGames() + " games on shutdown: " + e.getMessage());
+            }
+        }
+        DatabaseManager.closePool();
     }
 }
@@ -1,7 +1,6 @@
 package server.websocket;
 import chess.ChessGame;
 import chess.ChessMove;
-import chess.ChessPosition;
 import com.google.gson.Gson;
 import dataaccess.*;
 import io.javalin.websocket.WsCloseContext;
@@ -28,14 +27,10 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
     private final AuthDOA authDao;
     private final GameDOA gameDao;
 
-    public WebSocketHandler() {
-        try {
-            connections = new ConnectionManager();
-            authDao = new AuthSqlDao();
-            gameDao = new GameSqlDao();
-        }catch(DataAccessException e){
-            throw new RuntimeException("Error: Could not initialize or connect to Database");
-        }
+    public WebSocketHandler(AuthDOA authDao, GameDOA gameDao) {
+        this.connections = new ConnectionManager();
+        this.authDao = authDao;
+        this.gameDao = gameDao;
     }
 
     @Override
@@ -228,31 +223,38 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
                 return;
             }
 
+            String san = currGame.toSan(nextMove);
             currGame.makeMove(nextMove);
             gameDao.updateGame(gameID, currGameData);
 
             String notification;
-            String start = parseMove(nextMove.getStartPosition());
-            String end = parseMove(nextMove.getEndPosition());
             connections.broadcast(gameID, null, new LoadGameMessage(currGame));
-            notification = String.format("Notification: %s has made his move %s-%s.", username,start,end);
+            notification = String.format("Notification: %s has made his move %s.", username, san);
 
             //Check/checkmate/stalemate notifications
-            if(currGame.isInCheckmate(currGame.getTeamTurn())) {
+            ChessGame.GameStatus status = currGame.getStatus();
+            if(status == ChessGame.GameStatus.CHECKMATE) {
                 connections.broadcast(gameID, username, new NotificationMessage(notification));
                 notification = String.format("Checkmate! %s has won, sorry %s. :(", username, enemyPlayer);
                 connections.broadcast(gameID, null, new NotificationMessage(notification));
             }
-            else if(currGame.isInCheck(currGame.getTeamTurn())){
+            else if(status == ChessGame.GameStatus.CHECK){
                 connections.broadcast(gameID, username, new NotificationMessage(notification));
                 notification = String.format("%s has placed %s in check.", username, enemyPlayer);
                 connections.broadcast(gameID, null, new NotificationMessage(notification));
             }
-            else if(currGame.isInStalemate(currGame.getTeamTurn())){
+            else if(status == ChessGame.GameStatus.STALEMATE){
                 connections.broadcast(gameID, username, new NotificationMessage(notification));
                 notification = String.format("Woah that's stalemate good job %s I hope you weren't winning," +
                         " now %s can't move and NO ONE WINS NOW ;)", username, enemyPlayer);
                 connections.broadcast(gameID, null, new NotificationMessage(notification));
+            }
+            else if(status == ChessGame.GameStatus.REPETITION_DRAW || status == ChessGame.GameStatus.FIFTY_MOVE_DRAW){
+                connections.broadcast(gameID, username, new NotificationMessage(notification));
+                notification = status == ChessGame.GameStatus.REPETITION_DRAW
+                        ? "The same position has come up three times, the game is a draw."
+                        : "Fifty moves without a capture or pawn move, the game is a draw.";
+                connections.broadcast(gameID, null, new NotificationMessage(notification));
             }else{
                 connections.broadcast(gameID, username, new NotificationMessage(notification));
             }
@@ -262,9 +264,4 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
             sendError("Error: " + e.getMessage(), session);
         }
     }
-    private String parseMove(ChessPosition pos){
-        char col = (char) ('a' + pos.getColumn() -1);
-        int row = pos.getRow();
-        return String.valueOf(col) + row;
-    }
 }
\ No newline at end of file
@@ -12,6 +12,12 @@ public class ClearService {
         this.gameDao = new GameSqlDao();
     }
 
+    public ClearService(UserDOA userDao, AuthDOA authDao, GameDOA gameDao) {
+        this.userDao = userDao;
+        this.authDao = authDao;
+        this.gameDao = gameDao;
+    }
+
     public void clear() throws Exception {
         try {
             userDao.clear();
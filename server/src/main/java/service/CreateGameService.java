@@ -15,6 +15,11 @@ public class CreateGameService {
         this.authDao = new AuthSqlDao();
     }
 
+    public CreateGameService(GameDOA gameDao, AuthDOA authDao) {
+        this.gameDao = gameDao;
+        this.authDao = authDao;
+    }
+
     public int createGameID(){
         Random random = new Random();
         return random.nextInt(1000,9999);
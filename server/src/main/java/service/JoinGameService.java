@@ -14,6 +14,11 @@ public class JoinGameService {
         this.authDao = new AuthSqlDao();
     }
 
+    public JoinGameService(GameDOA gameDao, AuthDOA authDao) {
+        this.gameDao = gameDao;
+        this.authDao = authDao;
+    }
+
     public void joinGame(String authToken, JoinGameRequest request) throws Exception{
         try{
             if(!authDao.isAuthorized(authToken)){
@@ -15,6 +15,11 @@ public class ListService {
         this.gameDao = new GameSqlDao();
     }
 
+    public ListService(AuthDOA authDao, GameDOA gameDao) {
+        this.authDao = authDao;
+        this.gameDao = gameDao;
+    }
+
     public ListofListResult listGames(String authToken) throws Exception {
         try {
             if(!authDao.isAuthorized(authToken)){
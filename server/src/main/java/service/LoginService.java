@@ -16,6 +16,11 @@ public class LoginService {
         this.userDoa = new UserSqlDao();
     }
 
+    public LoginService(UserDOA userDoa, AuthDOA authDao) {
+        this.userDoa = userDoa;
+        this.authDao = authDao;
+    }
+
     public String createAuthToken(){return UUID.randomUUID().toString();}
 
     public boolean verifyPassword(UserData user, String password) {
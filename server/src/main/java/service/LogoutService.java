@@ -9,6 +9,10 @@ public class LogoutService {
         this.authDao = new AuthSqlDao();
     }
 
+    public LogoutService(AuthDOA authDao) {
+        this.authDao = authDao;
+    }
+
     public void logoutUser(String authToken) throws Exception {
         try {
             if(!authDao.isAuthorized(authToken)){
@@ -17,6 +17,11 @@ public class RegisterService {
         this.authDOA = new AuthSqlDao();
     }
 
+    public RegisterService(UserDOA userDOA, AuthDOA authDOA) {
+        this.userDOA = userDOA;
+        this.authDOA = authDOA;
+    }
+
     public String createAuthToken(){return UUID.randomUUID().toString();}
 
     public String hashPassword(String password){
@@ -0,0 +1,139 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    // stands in for a MySQL connection, so the pool can be tested without a database
+    private static final class FakeConnection {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean valid = new AtomicBoolean(true);
+        final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed.set(true);
+                        yield null;
+                    }
+                    case "isClosed" -> closed.get();
+                    case "isValid" -> valid.get();
+                    case "getAutoCommit" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    private ConnectionPool newPool(int min, int max, long idleTimeout, long leakThreshold) {
+        return newPool(min, max, idleTimeout, 0, leakThreshold);
+    }
+
+    private ConnectionPool newPool(int min, int max, long idleTimeout, long validationInterval, long leakThreshold) {
+        pool = new ConnectionPool(() -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.connection;
+        }, new ConnectionPool.Settings(min, max, idleTimeout, 100, 1, validationInterval, leakThreshold, false));
+        return pool;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Closed connections are reused")
+    void reuse() throws SQLException {
+        newPool(0, 2, 60000, 0);
+        try (Connection conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+        try (Connection conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed.get());
+        assertEquals(2, pool.stats().borrows());
+        assertEquals(0, pool.stats().active());
+        assertEquals(1, pool.stats().idle());
+    }
+
+    @Test
+    @DisplayName("Borrowing past max size times out")
+    void bounded() throws SQLException {
+        newPool(0, 1, 60000, 0);
+        Connection held = pool.borrow();
+
+        assertThrows(SQLTransientConnectionException.class, () -> pool.borrow());
+        assertEquals(1, pool.stats().timeouts());
+
+        held.close();
+        held.close();
+        assertThrows(SQLException.class, held::createStatement);
+        pool.borrow().close();
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    @DisplayName("Broken idle connections are replaced")
+    void validation() throws SQLException {
+        newPool(0, 2, 60000, 0);
+        pool.borrow().close();
+        opened.get(0).valid.set(false);
+
+        pool.borrow().close();
+
+        assertEquals(2, opened.size());
+        assertTrue(opened.get(0).closed.get());
+        assertEquals(1, pool.stats().evicted());
+    }
+
+    @Test
+    @DisplayName("A connection returned within the validation interval is not checked")
+    void validationInterval() throws SQLException {
+        newPool(0, 2, 60000, 60000, 0);
+        pool.borrow().close();
+        opened.get(0).valid.set(false);
+
+        pool.borrow().close();
+
+        assertEquals(1, opened.size());
+        assertEquals(0, pool.stats().evicted());
+    }
+
+    @Test
+    @DisplayName("Idle connections above min size are evicted and leaks are counted")
+    void housekeeping() throws SQLException, InterruptedException {
+        newPool(1, 3, 1, 1);
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        Connection leaked = pool.borrow();
+        first.close();
+        second.close();
+        Thread.sleep(5);
+
+        pool.runHousekeeping();
+
+        assertEquals(1, pool.stats().active());
+        assertEquals(0, pool.stats().idle());
+        assertEquals(2, pool.stats().evicted());
+        assertEquals(1, pool.stats().leaks());
+        leaked.close();
+    }
+}
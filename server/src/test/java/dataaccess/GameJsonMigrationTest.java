@@ -0,0 +1,52 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.GameCodec;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJsonMigrationTest {
+
+    // written by Gson from the ChessGame that kept its board as an 8x8 grid, after 1. e4
+    private static String baselineFixture() throws IOException {
+        try (InputStream in = GameJsonMigrationTest.class.getResourceAsStream("baseline-e4.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Baseline JSON converts to the same game")
+    void convertsBaselineGame() throws IOException, SQLException, InvalidMoveException {
+        ChessGame expected = new ChessGame();
+        expected.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        ChessGame converted = GameCodec.decode(GameSqlDao.convertJsonGame(new Gson(), 1, baselineFixture()));
+
+        assertEquals(expected, converted);
+        assertEquals(expected.toFen(), converted.toFen());
+        assertEquals(ChessGame.TeamColor.BLACK, converted.getTeamTurn());
+        assertEquals(ChessGame.GameStatus.ONGOING, converted.getStatus());
+        assertEquals(expected.getGameMoves(), converted.getGameMoves());
+    }
+
+    @Test
+    @DisplayName("A row that can not be read stops the conversion")
+    void rejectsUnreadableRows() throws IOException {
+        String emptyGrid = baselineFixture().replaceAll("\\{\"pieceColor\":\"[A-Z]+\",\"type\":\"[A-Z]+\"}", "null");
+        Gson gson = new Gson();
+
+        assertThrows(SQLException.class, () -> GameSqlDao.convertJsonGame(gson, 1, emptyGrid));
+        assertThrows(SQLException.class, () -> GameSqlDao.convertJsonGame(gson, 2, "{\"currentBoard\":"));
+    }
+}
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.InvalidMoveException;
 import model.GameData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -101,6 +102,25 @@ class GameSqlDaoTest {
 
     }
 
+    @Test
+    @DisplayName("update Game appends moves")
+    void updateGameAppendsMoves() throws DataAccessException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        gameDao.createGame(new GameData(1234, "white", "black", "chessGame", game));
+        String[] moves = {"e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Ba4", "Nf6", "O-O", "Be7", "Re1", "b5",
+                "Bb3", "d6", "c3", "O-O", "h3", "Nb8", "d4", "Nbd7", "c4", "c6", "cxb5", "axb5"};
+        for (String move : moves) {
+            game.makeMove(game.fromSan(move));
+            gameDao.updateGame(1234, new GameData(1234, "white", "black", "chessGame", game));
+            assertEquals(game, gameDao.getGame(1234).game());
+        }
+        assertEquals(game, gameDao.listGames().iterator().next().game());
+
+        game.setResigned(true);
+        gameDao.updateGame(1234, new GameData(1234, "white", "black", "chessGame", game));
+        assertTrue(gameDao.getGame(1234).game().isResigned());
+    }
+
     @Test
     @DisplayName("game Exists Positive")
     void gameExists() throws DataAccessException{
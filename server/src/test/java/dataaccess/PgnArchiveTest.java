@@ -0,0 +1,111 @@
+package dataaccess;
+
+import chess.GameCodec;
+import chess.PgnGame;
+import chess.PgnReader;
+import model.GameData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgnArchiveTest {
+
+    // stores games the way GameSqlDao does, as GameCodec bytes, so nothing survives
+    // that the encoding does not keep
+    private static final class EncodingStore implements GameDOA {
+        private final Map<Integer, GameData> names = new TreeMap<>();
+        private final Map<Integer, byte[]> games = new TreeMap<>();
+
+        @Override
+        public synchronized void clear() {
+            names.clear();
+            games.clear();
+        }
+
+        @Override
+        public synchronized void createGame(GameData newGame) {
+            names.put(newGame.gameID(), new GameData(newGame.gameID(), newGame.whiteUsername(),
+                    newGame.blackUsername(), newGame.gameName(), null));
+            games.put(newGame.gameID(), GameCodec.encode(newGame.game()));
+        }
+
+        @Override
+        public synchronized GameData getGame(int gameID) {
+            GameData game = names.get(gameID);
+            return game == null ? null : new GameData(gameID, game.whiteUsername(), game.blackUsername(),
+                    game.gameName(), GameCodec.decode(games.get(gameID)));
+        }
+
+        @Override
+        public synchronized Collection<GameData> listGames() {
+            List<GameData> all = new ArrayList<>();
+            for (int gameID : names.keySet()) {
+                all.add(getGame(gameID));
+            }
+            return all;
+        }
+
+        @Override
+        public synchronized void updateGame(int gameID, GameData newGame) {
+            if (names.containsKey(gameID)) {
+                createGame(newGame);
+            }
+        }
+
+        @Override
+        public synchronized boolean gameExists(int gameID) {
+            return names.containsKey(gameID);
+        }
+    }
+
+    @Test
+    @DisplayName("A game started from a FEN exports with its starting position")
+    void fenGameRoundTrips(@TempDir Path dir) throws IOException, DataAccessException {
+        String fen = "4k3/8/8/8/8/8/4P3/4K2R w K - 0 1";
+        Path file = dir.resolve("games.pgn");
+        Files.writeString(file, """
+                [Event "endgame"]
+                [White "alice"]
+                [Black "bob"]
+                [SetUp "1"]
+                [FEN "%s"]
+
+                1. O-O Kd7 2. e4 *
+
+                [Event "opening"]
+                [White "carol"]
+                [Black "dave"]
+
+                1. e4 e5 *
+                """.formatted(fen));
+        PgnArchive archive = new PgnArchive(new EncodingStore());
+
+        PgnReader.Totals totals = archive.importGames(file, 1, 1);
+        StringWriter out = new StringWriter();
+        int exported = archive.exportGames(out);
+
+        assertEquals(2, totals.games());
+        assertEquals(2, exported);
+        PgnReader reader = new PgnReader(new StringReader(out.toString()));
+        PgnGame endgame = reader.next();
+        assertEquals(fen, endgame.tag("FEN"));
+        assertEquals("1", endgame.tag("SetUp"));
+        assertEquals(3, endgame.moves().size());
+        PgnGame opening = reader.next();
+        assertNull(opening.tag("FEN"));
+        assertEquals(2, opening.moves().size());
+    }
+}
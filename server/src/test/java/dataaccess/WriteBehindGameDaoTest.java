@@ -0,0 +1,199 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindGameDaoTest {
+
+    private final RecordingStore store = new RecordingStore();
+    private WriteBehindGameDao dao;
+
+    // stands in for the SQL store, remembering each batch written to it
+    private static final class RecordingStore implements GameDOA {
+        final Map<Integer, GameData> games = new HashMap<>();
+        final List<List<GameData>> batches = new ArrayList<>();
+        volatile boolean failing;
+
+        @Override
+        public synchronized void clear() {
+            games.clear();
+        }
+
+        @Override
+        public synchronized void createGame(GameData newGame) throws DataAccessException {
+            if (games.putIfAbsent(newGame.gameID(), newGame) != null) {
+                throw new DataAccessException("Error: duplicate game");
+            }
+        }
+
+        @Override
+        public synchronized GameData getGame(int gameID) {
+            return games.get(gameID);
+        }
+
+        @Override
+        public synchronized Collection<GameData> listGames() {
+            return new ArrayList<>(games.values());
+        }
+
+        @Override
+        public synchronized void updateGame(int gameID, GameData newGame) throws DataAccessException {
+            updateGames(List.of(newGame));
+        }
+
+        @Override
+        public synchronized void updateGames(Collection<GameData> batch) throws DataAccessException {
+            if (failing) {
+                throw new DataAccessException("Error: database is down");
+            }
+            batches.add(List.copyOf(batch));
+            for (GameData game : batch) {
+                games.replace(game.gameID(), game);
+            }
+        }
+
+        @Override
+        public synchronized boolean gameExists(int gameID) {
+            return games.containsKey(gameID);
+        }
+
+        synchronized int storedPlies(int gameID) {
+            return games.get(gameID).game().getGameMoves().size();
+        }
+    }
+
+    private WriteBehindGameDao newDao(long maxLag, int maxPendingMoves) {
+        dao = new WriteBehindGameDao(store, new WriteBehindGameDao.Settings(true, maxLag, maxPendingMoves, 100));
+        return dao;
+    }
+
+    private void play(int gameID, String... moves) throws DataAccessException, InvalidMoveException {
+        for (String move : moves) {
+            GameData data = dao.getGame(gameID);
+            data.game().makeMove(data.game().fromSan(move));
+            dao.updateGame(gameID, data);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws DataAccessException {
+        store.failing = false;
+        dao.close();
+    }
+
+    @Test
+    @DisplayName("Updates to a game are coalesced into one write")
+    void coalesce() throws DataAccessException, InvalidMoveException {
+        newDao(60000, 100);
+        dao.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+        play(1, "e4", "e5", "Nf3", "Nc6");
+
+        assertEquals(0, store.storedPlies(1));
+        assertEquals(4, dao.getGame(1).game().getGameMoves().size());
+        assertEquals(4, dao.listGames().iterator().next().game().getGameMoves().size());
+
+        dao.flush();
+
+        assertEquals(1, store.batches.size());
+        assertEquals(4, store.storedPlies(1));
+        assertEquals(0, dao.pendingGames());
+    }
+
+    @Test
+    @DisplayName("Pending updates are written within the lag bound")
+    void maxLag() throws DataAccessException, InvalidMoveException, InterruptedException {
+        newDao(20, 100);
+        dao.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+        play(1, "d4");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dao.pendingGames() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, store.storedPlies(1));
+    }
+
+    @Test
+    @DisplayName("A game too far ahead of the store is written before the next update")
+    void maxPendingMoves() throws DataAccessException, InvalidMoveException {
+        newDao(60000, 2);
+        dao.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+        play(1, "e4", "e5");
+        assertEquals(0, store.storedPlies(1));
+
+        play(1, "Nf3");
+        assertEquals(2, store.storedPlies(1));
+
+        store.failing = true;
+        play(1, "Nc6");
+        assertThrows(DataAccessException.class, () -> play(1, "Bb5"));
+        assertEquals(4, dao.getGame(1).game().getGameMoves().size());
+    }
+
+    @Test
+    @DisplayName("Concurrent updates to one game leave memory and the store agreeing")
+    void concurrentUpdates() throws Exception {
+        newDao(60000, 100);
+        dao.createGame(new GameData(1, "white", "black", "start", new ChessGame()));
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 1000; round++) {
+                CyclicBarrier start = new CyclicBarrier(4);
+                List<Future<?>> updates = new ArrayList<>();
+                for (int thread = 0; thread < 4; thread++) {
+                    String name = round + "-" + thread;
+                    updates.add(threads.submit(() -> {
+                        start.await();
+                        dao.updateGame(1, new GameData(1, "white", "black", name, new ChessGame()));
+                        return null;
+                    }));
+                }
+                for (Future<?> update : updates) {
+                    update.get();
+                }
+                String latest = dao.getGame(1).gameName();
+
+                dao.flush();
+
+                assertEquals(latest, store.getGame(1).gameName());
+                assertEquals(latest, dao.getGame(1).gameName());
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Close writes everything still pending")
+    void closeFlushes() throws DataAccessException, InvalidMoveException {
+        newDao(60000, 100);
+        dao.createGame(new GameData(1, "white", "black", "one", new ChessGame()));
+        dao.createGame(new GameData(2, "white", "black", "two", new ChessGame()));
+        play(1, "e4");
+        play(2, "c4", "e5");
+        dao.updateGame(3, new GameData(3, "white", "black", "missing", new ChessGame()));
+
+        dao.close();
+
+        assertEquals(1, store.storedPlies(1));
+        assertEquals(2, store.storedPlies(2));
+        assertFalse(store.gameExists(3));
+        assertEquals(List.of(1, 2), store.batches.get(0).stream().map(GameData::gameID).toList());
+    }
+}
@@ -0,0 +1,185 @@
+package chess;
+
+/**
+ * Precomputed attack tables. Knights, kings and pawns use a plain lookup per square,
+ * rooks and bishops use magic bitboards: the blockers on a slider's rays are multiplied
+ * by a per-square magic number whose top bits index straight into that square's table.
+ * The magics were found by trial with sparse random numbers, the tables are filled
+ * (and every magic re-checked for collisions) at class load.
+ */
+final class Attacks {
+
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_8 = RANK_1 << 56;
+
+    private static final int[][] KNIGHT_STEPS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    static final long[] KNIGHT = new long[64];
+    static final long[] KING = new long[64];
+    // indexed by [color][square], the squares a pawn of that color attacks
+    static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MAGICS = {
+            0x0480028060400412L, 0x0040004010002000L, 0x1080098210012000L, 0x0080080080100004L,
+            0x8900080005000210L, 0x0200020018740150L, 0x0080010000800200L, 0x508008E440800900L,
+            0x0310800040008028L, 0x0000401000402008L, 0x1080802000100080L, 0x000500100100A418L,
+            0x8001800800812402L, 0x2052000200086410L, 0x8021005402001100L, 0x208A000401104082L,
+            0x8000288000400082L, 0x4890014000200042L, 0x0020010010204100L, 0x0022020010084420L,
+            0x0005010010080004L, 0x1002008080020400L, 0x4008840002081001L, 0x0848820004008041L,
+            0x0000802080004010L, 0x00C0088100204902L, 0x400A008200144020L, 0x0400100080080084L,
+            0x0200040080080080L, 0x4004000480020080L, 0x100100530006000CL, 0x8000210200009044L,
+            0x5204C00124800290L, 0x0400422001401003L, 0x4000200080801000L, 0x0081012009001000L,
+            0x0000040080800801L, 0xC808401008010420L, 0x040410E204001801L, 0x0000204112000884L,
+            0x0080002000414000L, 0x0000201000404000L, 0x0010002000108080L, 0x4000420010220008L,
+            0x60020110040A0020L, 0x8282000400028080L, 0x8008121091040008L, 0x8040208400420001L,
+            0x0000408100360200L, 0x0001002040008100L, 0x4200201200408200L, 0x00810010000A2500L,
+            0x1290040008008280L, 0x0402020004008080L, 0x0800024810010400L, 0x1008240050810200L,
+            0x2001406080010013L, 0x0001004220801602L, 0x0008420080200812L, 0x0007006210000835L,
+            0x0002002004100802L, 0x100D004400084201L, 0x1121004C020000A1L, 0x0000510660804C02L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x8012500E08050221L, 0x0A82100400809A00L, 0x000441240104018BL, 0x0028284100080410L,
+            0x0001104084004000L, 0xA008900420100000L, 0x0004011490041001L, 0x4042002088080920L,
+            0x0000080208180102L, 0x1011204182008103L, 0x244169080A0081A0L, 0x30020404008C1000L,
+            0x1708011040520040L, 0x0804220842081000L, 0xA81C504144304004L, 0x2000054044109800L,
+            0x009200A020024080L, 0x1804000204A81200L, 0x02180A1025809010L, 0x000220080209C000L,
+            0x8004000200942000L, 0x0102000101008204L, 0x0084000051180860L, 0x0008800022011000L,
+            0x20080A4824200850L, 0x8004200004080083L, 0x0800900028102020L, 0x0804010280200880L,
+            0x0005001007004000L, 0x0C01090082100080L, 0x04089C2A41010800L, 0x0004644219010810L,
+            0x4008024040080884L, 0x4004100204040494L, 0x0004A20800490801L, 0x1580020080080080L,
+            0x4040080820420020L, 0x0102048202050050L, 0x2004488200808800L, 0x0084008224089400L,
+            0x0600C8080880400CL, 0x42C2080202010840L, 0x0184804840400800L, 0x0A00004200881800L,
+            0x0808080100400408L, 0x0068010104080200L, 0x1060248100531200L, 0x041010C2008A0241L,
+            0x0100410410400805L, 0xC10A0200E4040A88L, 0x4009002084108080L, 0x0440801246080020L,
+            0x0020014005010840L, 0x0080228202020018L, 0x040420480248850CL, 0x501208161086020BL,
+            0x42C1040202016400L, 0x8210030841042020L, 0x410024C200840448L, 0x0080500000420204L,
+            0x8400030A89210101L, 0x0810084002240102L, 0x00D0200910208082L, 0x0021A00200810011L
+    };
+
+    // squares strictly between two squares on a shared line, and the whole line through them
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    private record Magic(long mask, long magic, int shift, long[] attacks) {
+        long attacks(long occupied) {
+            return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = steps(square, KNIGHT_STEPS);
+            KING[square] = steps(square, KING_STEPS);
+            PAWN[ChessBoard.WHITE][square] = steps(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN[ChessBoard.BLACK][square] = steps(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+        for (int square = 0; square < 64; square++) {
+            ROOK[square] = buildMagic(square, ROOK_MAGICS[square], ROOK_DIRECTIONS);
+            BISHOP[square] = buildMagic(square, BISHOP_MAGICS[square], BISHOP_DIRECTIONS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitB = 1L << b;
+                if (a == b) {
+                    continue;
+                }
+                if ((rook(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = rook(a, bitB) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | (1L << a) | bitB;
+                } else if ((bishop(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = bishop(a, bitB) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | (1L << a) | bitB;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    static long rook(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    static long bishop(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    static long queen(int square, long occupied) {
+        return ROOK[square].attacks(occupied) | BISHOP[square].attacks(occupied);
+    }
+
+    private static long steps(int square, int[][] steps) {
+        int row = square / 8;
+        int col = square % 8;
+        long attacks = 0;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= 1L << (r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    // walks each ray square by square, only used to fill the magic tables
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int r = square / 8 + direction[0];
+            int c = square % 8 + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long bit = 1L << (r * 8 + c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    // the squares whose occupancy can change the attack set, i.e. every ray minus its last square
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int r = square / 8 + direction[0];
+            int c = square % 8 + direction[1];
+            while (r + direction[0] >= 0 && r + direction[0] < 8 && c + direction[1] >= 0 && c + direction[1] < 8) {
+                mask |= 1L << (r * 8 + c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static Magic buildMagic(int square, long magic, int[][] directions) {
+        long mask = relevantMask(square, directions);
+        int shift = 64 - Long.bitCount(mask);
+        long[] table = new long[1 << Long.bitCount(mask)];
+        boolean[] filled = new boolean[table.length];
+        long subset = 0;
+        do {
+            int index = (int) ((subset * magic) >>> shift);
+            long attacks = slidingAttacks(square, subset, directions);
+            if (filled[index] && table[index] != attacks) {
+                throw new IllegalStateException("Bad magic for square " + square);
+            }
+            filled[index] = true;
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        return new Magic(mask, magic, shift, table);
+    }
+}
@@ -0,0 +1,184 @@
+package chess;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Searches a stream of positions on a fixed pool of worker threads, one {@link Search}
+ * per worker. At most maxInFlight positions are queued or running at once: the thread
+ * feeding the stream blocks until a worker frees a slot, so memory stays flat however
+ * long the stream is. Results go to a callback as they finish, on the worker's thread.
+ */
+public final class BatchAnalyzer implements AutoCloseable {
+
+    /**
+     * @param index        position of the game in the input stream, from 0
+     * @param game         the analysed position
+     * @param result       what the search found
+     * @param elapsedNanos time spent on this position
+     */
+    public record Analysis(long index, ChessGame game, Search.Result result, long elapsedNanos) {
+    }
+
+    /**
+     * Timings for one call to {@link #analyze}. Every position submitted is counted in
+     * exactly one of positions, failures and callbackFailures.
+     *
+     * @param positions        positions searched and handed to the callback
+     * @param failures         positions whose search threw
+     * @param callbackFailures positions searched but whose callback threw
+     */
+    public record BatchStats(long positions, long failures, long callbackFailures, long nodes,
+                             long elapsedNanos, long maxPositionNanos) {
+
+        public double positionsPerSecond() {
+            return elapsedNanos == 0 ? 0 : positions * 1e9 / elapsedNanos;
+        }
+
+        public double nodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final ExecutorService workers;
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+    private final int maxInFlight;
+    private final int depth;
+    private final long timeLimitMillis;
+
+    /**
+     * A pool with one worker per core
+     */
+    public BatchAnalyzer(int depth, long timeLimitMillis) {
+        this(Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors(),
+                depth, timeLimitMillis);
+    }
+
+    /**
+     * @param threads         worker threads
+     * @param maxInFlight     positions queued or being searched before the producer waits
+     * @param depth           search depth per position
+     * @param timeLimitMillis search time per position, 0 for none
+     */
+    public BatchAnalyzer(int threads, int maxInFlight, int depth, long timeLimitMillis) {
+        if (threads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("threads and maxInFlight must be positive");
+        }
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = maxInFlight;
+        this.depth = depth;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Searches every position in the stream and waits for the last one to finish.
+     * Positions whose search throws are counted as failures and not passed on, and
+     * positions whose callback throws are counted as callback failures.
+     */
+    public BatchStats analyze(Stream<ChessGame> positions, Consumer<Analysis> results) throws InterruptedException {
+        Semaphore slots = new Semaphore(maxInFlight);
+        LongAdder done = new LongAdder();
+        LongAdder failures = new LongAdder();
+        LongAdder callbackFailures = new LongAdder();
+        LongAdder nodes = new LongAdder();
+        LongAccumulator slowest = new LongAccumulator(Math::max, 0);
+        long index = 0;
+        long start = System.nanoTime();
+
+        Iterator<ChessGame> games = positions.iterator();
+        while (games.hasNext()) {
+            ChessGame game = games.next();
+            long position = index++;
+            slots.acquire();
+            workers.execute(() -> {
+                try {
+                    long began = System.nanoTime();
+                    Search.Result result;
+                    try {
+                        result = searches.get().search(game, depth, timeLimitMillis);
+                    } catch (RuntimeException e) {
+                        failures.increment();
+                        return;
+                    }
+                    long elapsed = System.nanoTime() - began;
+                    nodes.add(result.nodes());
+                    slowest.accumulate(elapsed);
+                    try {
+                        results.accept(new Analysis(position, game, result, elapsed));
+                    } catch (RuntimeException e) {
+                        callbackFailures.increment();
+                        return;
+                    }
+                    done.increment();
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+        slots.acquire(maxInFlight);
+        slots.release(maxInFlight);
+        return new BatchStats(done.sum(), failures.sum(), callbackFailures.sum(), nodes.sum(),
+                System.nanoTime() - start, slowest.get());
+    }
+
+    /**
+     * Replays a game lazily, producing the position before each move and after the last.
+     * Each position is a separate game, so it can be analysed on another thread.
+     *
+     * @throws IllegalArgumentException from the stream if a move is illegal
+     */
+    public static Stream<ChessGame> positionsOf(Collection<ChessMove> moves) {
+        Iterator<ChessMove> remaining = moves.iterator();
+        ChessGame replay = new ChessGame();
+        Iterator<ChessGame> positions = new Iterator<>() {
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                return !finished;
+            }
+
+            @Override
+            public ChessGame next() {
+                if (finished) {
+                    throw new NoSuchElementException();
+                }
+                ChessGame position = new ChessGame();
+                position.loadPosition(replay.copy(), replay.getTeamTurn());
+                if (remaining.hasNext()) {
+                    ChessMove move = remaining.next();
+                    try {
+                        replay.makeMove(move);
+                    } catch (InvalidMoveException e) {
+                        throw new IllegalArgumentException("Illegal move " + move, e);
+                    }
+                } else {
+                    finished = true;
+                }
+                return position;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(positions,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+}
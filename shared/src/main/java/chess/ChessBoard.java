@@ -1,7 +1,18 @@
 package chess;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Objects;
 
 
 /**
@@ -9,13 +20,103 @@ import java.util.Objects;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Squares are numbered 0 (a1) to 63 (h8), row by row, and the board is stored as
+ * one 64-bit mask per (color, piece type) plus occupancy masks for each color.
  */
+@JsonAdapter(ChessBoard.Adapter.class)
 public class ChessBoard {
 
-    ChessPiece[][] board = new ChessPiece[8][8];
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+    static final int EMPTY = -1;
+    static final int NO_SQUARE = -1;
+
+    static final int WHITE_KING_SIDE = 1;
+    static final int WHITE_QUEEN_SIDE = 2;
+    static final int BLACK_KING_SIDE = 4;
+    static final int BLACK_QUEEN_SIDE = 8;
+    static final int ALL_CASTLING = 15;
+
+    // castling rights kept after a move touches the square, so moving a king or rook
+    // (or capturing on a rook's home square) drops the matching rights
+    private static final int[] CASTLING_MASK = new int[64];
+
+    // FEN letters, indexed by pieceIndex(color, type)
+    static final char[] SYMBOLS = "KQBNRPkqbnrp".toCharArray();
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[square(1, 5)] = ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE) & ALL_CASTLING;
+        CASTLING_MASK[square(1, 8)] = ~WHITE_KING_SIDE & ALL_CASTLING;
+        CASTLING_MASK[square(1, 1)] = ~WHITE_QUEEN_SIDE & ALL_CASTLING;
+        CASTLING_MASK[square(8, 5)] = ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE) & ALL_CASTLING;
+        CASTLING_MASK[square(8, 8)] = ~BLACK_KING_SIDE & ALL_CASTLING;
+        CASTLING_MASK[square(8, 1)] = ~BLACK_QUEEN_SIDE & ALL_CASTLING;
+    }
+
+    // indexed by pieceIndex(color, type)
+    long[] pieces = new long[12];
+    // indexed by color ordinal
+    long[] colors = new long[2];
+    long occupied;
+    int castlingRights;
+    int enPassantSquare = NO_SQUARE;
+    int sideToMove = WHITE;
+    // half moves since the last capture or pawn move, for the fifty-move rule
+    int halfmoveClock;
+    // starts at 1 and goes up after each black move
+    int fullmoveNumber = 1;
+    // Zobrist key of the piece placement alone, updated by every add and remove
+    long pieceKey;
+    // set by addPiece and removePiece: the castling rights of a board put together by
+    // hand say nothing, so a game infers them when it takes the board
+    transient boolean placedByHand;
+
+    // one packed frame per move made with makeMove, popped by unmakeMove: the encoded
+    // move, moving piece, captured piece + 1, castling rights, en passant square + 1
+    // and the halfmove clock
+    private transient long[] undoStack = new long[16];
+    private transient int undoCount;
 
     public ChessBoard() {
-        this.board = board;
+    }
+
+    public ChessBoard(ChessBoard other) {
+        this.pieces = other.pieces.clone();
+        this.colors = other.colors.clone();
+        this.occupied = other.occupied;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.sideToMove = other.sideToMove;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+        this.pieceKey = other.pieceKey;
+        this.placedByHand = other.placedByHand;
+    }
+
+    static int pieceIndex(int color, int type) {
+        return color * 6 + type;
+    }
+
+    static int colorOf(int piece) {
+        return piece / 6;
+    }
+
+    static int typeOf(int piece) {
+        return piece % 6;
+    }
+
+    static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static ChessPiece piece(int piece) {
+        return ChessPiece.of(piece);
     }
 
     @Override
@@ -24,12 +125,102 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return pieceKey == that.pieceKey && Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(pieceKey);
+    }
+
+    /**
+     * Gets the Zobrist key of the position: piece placement, side to move, castling
+     * rights and the en passant file (only when a pawn can actually capture there).
+     * Equal positions always have equal keys, different ones almost never do.
+     *
+     * @return the 64-bit position key
+     */
+    public long getZobristKey() {
+        long key = pieceKey ^ Zobrist.CASTLING[castlingRights];
+        if (sideToMove == BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if (enPassantSquare != NO_SQUARE
+                && (Attacks.PAWN[1 - sideToMove][enPassantSquare] & pieces[pieceIndex(sideToMove, MoveGenerator.PAWN)]) != 0) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare % 8];
+        }
+        return key;
+    }
+
+    /**
+     * @return the team that moves next on this board
+     */
+    public ChessGame.TeamColor getSideToMove() {
+        return sideToMove == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    public void setSideToMove(ChessGame.TeamColor team) {
+        this.sideToMove = team.ordinal();
+    }
+
+    /**
+     * Grants castling rights for every king and rook still standing on their starting
+     * squares. A board built piece by piece has no history, so this is the best guess.
+     */
+    void inferCastlingRights() {
+        castlingRights = 0;
+        placedByHand = false;
+        for (int color = WHITE; color <= BLACK; color++) {
+            int home = color == WHITE ? square(1, 5) : square(8, 5);
+            long rooks = pieces[pieceIndex(color, MoveGenerator.ROOK)];
+            if (pieceAt(home) != pieceIndex(color, MoveGenerator.KING)) {
+                continue;
+            }
+            if ((rooks & (1L << (home + 3))) != 0) {
+                castlingRights |= color == WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+            }
+            if ((rooks & (1L << (home - 4))) != 0) {
+                castlingRights |= color == WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+            }
+        }
+    }
+
+    /**
+     * @return half moves played since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * @return the move number, starting at 1 and counting up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Reads a position in Forsyth-Edwards Notation. The clocks may be left off.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    public static ChessBoard fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.write(this);
     }
 
     /**
@@ -39,11 +230,17 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() -1][position.getColumn() -1] = piece;
+        int square = square(position);
+        clearSquare(square);
+        placedByHand = true;
+        if (piece != null) {
+            setSquare(square, pieceIndex(piece.getTeamColor().ordinal(), piece.getPieceType().ordinal()));
+        }
     }
 
     public void removePiece(ChessPosition position){
-        board[position.getRow() - 1][position.getColumn()-1] = null;
+        clearSquare(square(position));
+        placedByHand = true;
     }
 
     /**
@@ -54,8 +251,195 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow() -1][position.getColumn() -1];
+        int piece = pieceAt(square(position));
+        return piece == EMPTY ? null : ChessPiece.of(piece);
+    }
+
+    /**
+     * @return the piece index on the square, or EMPTY
+     */
+    int pieceAt(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
+            return EMPTY;
+        }
+        int first = (colors[WHITE] & bit) != 0 ? pieceIndex(WHITE, 0) : pieceIndex(BLACK, 0);
+        for (int piece = first; piece < first + 6; piece++) {
+            if ((pieces[piece] & bit) != 0) {
+                return piece;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, by looking outward
+     * from the square along knight, pawn, king and sliding rays
+     *
+     * @param position the square to test
+     * @param byColor  the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square(position), byColor.ordinal());
+    }
 
+    boolean isSquareAttacked(int square, int byColor) {
+        return isSquareAttacked(square, byColor, occupied);
+    }
+
+    // occupancy is a parameter so callers can lift a piece (the king) off the board first
+    boolean isSquareAttacked(int square, int byColor, long occupied) {
+        int first = pieceIndex(byColor, 0);
+        if ((Attacks.PAWN[1 - byColor][square] & pieces[first + MoveGenerator.PAWN]) != 0
+                || (Attacks.KNIGHT[square] & pieces[first + MoveGenerator.KNIGHT]) != 0
+                || (Attacks.KING[square] & pieces[first + MoveGenerator.KING]) != 0) {
+            return true;
+        }
+        long queens = pieces[first + MoveGenerator.QUEEN];
+        long diagonal = pieces[first + MoveGenerator.BISHOP] | queens;
+        long straight = pieces[first + MoveGenerator.ROOK] | queens;
+        return (diagonal != 0 && (Attacks.bishop(square, occupied) & diagonal) != 0)
+                || (straight != 0 && (Attacks.rook(square, occupied) & straight) != 0);
+    }
+
+    /**
+     * @return the square of the given color's king, or NO_SQUARE if it has none. The king
+     * bitboard is kept up to date by every add, remove and move, so this never scans.
+     */
+    int kingSquare(int color) {
+        long king = pieces[pieceIndex(color, MoveGenerator.KING)];
+        return king == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(king);
+    }
+
+    void setSquare(int square, int piece) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[colorOf(piece)] |= bit;
+        occupied |= bit;
+        pieceKey ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+
+    void clearSquare(int square) {
+        int piece = pieceAt(square);
+        if (piece == EMPTY) {
+            return;
+        }
+        long mask = ~(1L << square);
+        pieces[piece] &= mask;
+        colors[colorOf(piece)] &= mask;
+        occupied &= mask;
+        pieceKey ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+
+    /**
+     * Plays a move on the board without checking that it is legal, remembering
+     * enough to take it back with {@link #unmakeMove()}. Castling is a king moving
+     * two columns, en passant is a pawn moving onto the en passant square.
+     *
+     * @param move the move to play, its start square must hold a piece
+     */
+    public void makeMove(ChessMove move) {
+        makeMove(Move.encode(this, move));
+    }
+
+    /**
+     * Plays an encoded {@link Move}, trusting its flag for captures, castling and en passant
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int piece = pieceAt(from);
+        int captured = EMPTY;
+
+        if (flag == Move.EN_PASSANT) {
+            int capturedSquare = to + (colorOf(piece) == WHITE ? -8 : 8);
+            captured = pieceAt(capturedSquare);
+            clearSquare(capturedSquare);
+        } else if (Move.isCapture(move)) {
+            captured = pieceAt(to);
+            clearSquare(to);
+        }
+        long frame = move | (long) piece << 16 | (long) (captured + 1) << 20
+                | (long) castlingRights << 24 | (long) (enPassantSquare + 1) << 28
+                | (long) Math.min(halfmoveClock, 0xFFFF) << 35;
+        clearSquare(from);
+        ChessPiece.PieceType promotion = Move.promotionType(move);
+        setSquare(to, promotion == null ? piece : pieceIndex(colorOf(piece), promotion.ordinal()));
+
+        if (flag == Move.KING_CASTLE || flag == Move.QUEEN_CASTLE) {
+            moveCastlingRook(to, false);
+        }
+        enPassantSquare = flag == Move.DOUBLE_PAWN_PUSH ? (from + to) / 2 : NO_SQUARE;
+        halfmoveClock = captured != EMPTY || typeOf(piece) == MoveGenerator.PAWN ? 0 : halfmoveClock + 1;
+        if (sideToMove == BLACK) {
+            fullmoveNumber++;
+        }
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        sideToMove = 1 - sideToMove;
+
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        undoStack[undoCount++] = frame;
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        long frame = undoStack[--undoCount];
+        int move = (int) (frame & 0xFFFF);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int piece = (int) (frame >>> 16 & 15);
+        int captured = (int) (frame >>> 20 & 15) - 1;
+
+        clearSquare(to);
+        setSquare(from, piece);
+        if (flag == Move.EN_PASSANT) {
+            setSquare(to + (colorOf(piece) == WHITE ? -8 : 8), captured);
+        } else if (captured != EMPTY) {
+            setSquare(to, captured);
+        }
+        if (flag == Move.KING_CASTLE || flag == Move.QUEEN_CASTLE) {
+            moveCastlingRook(to, true);
+        }
+        castlingRights = (int) (frame >>> 24 & 15);
+        enPassantSquare = (int) (frame >>> 28 & 127) - 1;
+        halfmoveClock = (int) (frame >>> 35 & 0xFFFF);
+        sideToMove = 1 - sideToMove;
+        if (sideToMove == BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * Forgets the moves played so far, which can then no longer be taken back. A game
+     * calls this after every move it keeps, so a long game does not hold an undo frame
+     * for each of its moves.
+     */
+    void clearUndo() {
+        undoCount = 0;
+        if (undoStack.length > 16) {
+            undoStack = new long[16];
+        }
+    }
+
+    // the king has already landed on kingTarget, move the rook to the other side of it (or back)
+    private void moveCastlingRook(int kingTarget, boolean undo) {
+        boolean kingSide = kingTarget % 8 == 6;
+        int corner = kingSide ? kingTarget + 1 : kingTarget - 2;
+        int inside = kingSide ? kingTarget - 1 : kingTarget + 1;
+        int from = undo ? inside : corner;
+        int to = undo ? corner : inside;
+        int rook = pieceAt(from);
+        if (rook != EMPTY) {
+            clearSquare(from);
+            setSquare(to, rook);
+        }
     }
 
     @Override
@@ -64,60 +448,8 @@ public class ChessBoard {
         for (int row=8;row >0;row--){
             chessBoard.append("\n");
             for(int col =1; col <9; col++){
-                ChessPosition square = new ChessPosition(row, col);
-                ChessPiece target = getPiece(square);
-                if(target == null) {
-                    chessBoard.append("[ ]");
-                    continue;
-                }
-                if (target.getPieceType() == ChessPiece.PieceType.KING) {
-                    if(target.getTeamColor() == ChessGame.TeamColor.BLACK){
-                        chessBoard.append("[k]");
-                    }
-                    else{
-                        chessBoard.append("[K]");
-                    }
-                }
-                if (target.getPieceType() == ChessPiece.PieceType.QUEEN) {
-                    if(target.getTeamColor() == ChessGame.TeamColor.BLACK){
-                        chessBoard.append("[q]");
-                    }
-                    else{
-                        chessBoard.append("[Q]");
-                    }
-                }
-                if (target.getPieceType() == ChessPiece.PieceType.KNIGHT) {
-                    if(target.getTeamColor() == ChessGame.TeamColor.BLACK){
-                        chessBoard.append("[n]");
-                    }
-                    else{
-                        chessBoard.append("[N]");
-                    }
-                }
-                if (target.getPieceType() == ChessPiece.PieceType.PAWN) {
-                    if(target.getTeamColor() == ChessGame.TeamColor.BLACK){
-                        chessBoard.append("[p]");
-                    }
-                    else{
-                        chessBoard.append("[P]");
-                    }
-                }
-                if (target.getPieceType() == ChessPiece.PieceType.BISHOP) {
-                    if(target.getTeamColor() == ChessGame.TeamColor.BLACK){
-                        chessBoard.append("[b]");
-                    }
-                    else{
-                        chessBoard.append("[B]");
-                    }
-                }
-                if (target.getPieceType() == ChessPiece.PieceType.ROOK) {
-                    if(target.getTeamColor() == ChessGame.TeamColor.BLACK){
-                        chessBoard.append("[r]");
-                    }
-                    else{
-                        chessBoard.append("[R]");
-                    }
-                }
+                int piece = pieceAt(square(row, col));
+                chessBoard.append('[').append(piece == EMPTY ? ' ' : SYMBOLS[piece]).append(']');
             }
         }
         return chessBoard.toString();
@@ -128,27 +460,79 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        addPiece(new ChessPosition(1,1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-        }
-        addPiece(new ChessPosition(8,1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+        int pawn = ChessPiece.PieceType.PAWN.ordinal();
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = NO_SQUARE;
+        sideToMove = WHITE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        placedByHand = false;
+        for (int col = 1; col <= 8; col++) {
+            clearSquare(square(1, col));
+            setSquare(square(1, col), pieceIndex(WHITE, backRank[col - 1].ordinal()));
+            clearSquare(square(2, col));
+            setSquare(square(2, col), pieceIndex(WHITE, pawn));
+            clearSquare(square(7, col));
+            setSquare(square(7, col), pieceIndex(BLACK, pawn));
+            clearSquare(square(8, col));
+            setSquare(square(8, col), pieceIndex(BLACK, backRank[col - 1].ordinal()));
+        }
+    }
+
+    // writes the fields as they are. Reads them back, or the 8x8 "board" grid of pieces
+    // that boards were stored as before the bitboards.
+    static final class Adapter implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            TypeAdapter<ChessBoard> fields = gson.getDelegateAdapter(this, TypeToken.get(ChessBoard.class));
+            TypeAdapter<JsonElement> trees = gson.getAdapter(JsonElement.class);
+            TypeAdapter<ChessPiece> pieces = gson.getAdapter(ChessPiece.class);
+            return (TypeAdapter<T>) new TypeAdapter<ChessBoard>() {
+                @Override
+                public void write(JsonWriter out, ChessBoard board) throws IOException {
+                    fields.write(out, board);
+                }
+
+                @Override
+                public ChessBoard read(JsonReader in) throws IOException {
+                    JsonElement tree = trees.read(in);
+                    if (tree.isJsonObject() && tree.getAsJsonObject().has("board")) {
+                        return fromGrid(tree.getAsJsonObject().getAsJsonArray("board"), pieces);
+                    }
+                    return fields.fromJsonTree(tree);
+                }
+            };
+        }
+
+        private static ChessBoard fromGrid(JsonArray grid, TypeAdapter<ChessPiece> pieces) {
+            if (grid.size() != 8) {
+                throw new JsonParseException("Board grid has " + grid.size() + " rows, not 8");
+            }
+            ChessBoard board = new ChessBoard();
+            for (int row = 1; row <= 8; row++) {
+                JsonArray squares = grid.get(row - 1).getAsJsonArray();
+                if (squares.size() != 8) {
+                    throw new JsonParseException("Board grid row " + row + " has " + squares.size() + " squares, not 8");
+                }
+                for (int col = 1; col <= 8; col++) {
+                    ChessPiece piece = pieces.fromJsonTree(squares.get(col - 1));
+                    if (piece == null) {
+                        continue;
+                    }
+                    if (piece.getTeamColor() == null || piece.getPieceType() == null) {
+                        throw new JsonParseException("Board grid has an incomplete piece at row " + row + ", column " + col);
+                    }
+                    board.setSquare(square(row, col),
+                            pieceIndex(piece.getTeamColor().ordinal(), piece.getPieceType().ordinal()));
+                }
+            }
+            board.inferCastlingRights();
+            return board;
         }
     }
 }
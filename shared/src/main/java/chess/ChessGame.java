@@ -1,5 +1,16 @@
 package chess;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -10,25 +21,67 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGame.Adapter.class)
 public class ChessGame {
     private ChessBoard currentBoard = new ChessBoard();
-    private boolean isInCheck;
-    private boolean isInCheckmate;
-    private boolean isInStalemate;
     private TeamColor currentTurn;
     Collection<ChessMove> gameMoves;
-    private Castle canCastle;
     private boolean resigned;
+    // Zobrist keys of every position since the last capture or pawn move, oldest first.
+    // Nothing before that can repeat, so this window is all a repetition check scans.
+    private long[] positionHistory = new long[16];
+    private int historySize;
+    // the position the moves start from, null for the initial position
+    private String startFen;
+    // status of the team to move, worked out on first use after each change of position
+    private transient GameStatus status;
+    // every legal move for the team to move, filled in together with status
+    private transient MoveList positionMoves = new MoveList();
+    // scratch list for the moves of a single piece
+    private transient MoveList moveList = new MoveList();
+
+    // fifty moves by each side
+    private static final int FIFTY_MOVE_PLIES = 100;
 
     public ChessGame() {
         this.currentTurn = TeamColor.WHITE;
         this.currentBoard.resetBoard();
-        this.isInStalemate = false;
-        this.isInCheckmate = false;
-        this.isInCheck = false;
         this.gameMoves = new ArrayList<>();
         this.resigned = false;
-        this.canCastle = new Castle(gameMoves, currentBoard);
+        resetHistory();
+    }
+
+    /**
+     * Starts a game from a position in Forsyth-Edwards Notation, taking its side to move,
+     * castling rights, en passant square and clocks as given
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = ChessBoard.fromFen(fen);
+        ChessGame game = new ChessGame();
+        game.loadPosition(board, board.getSideToMove());
+        game.setStartFen(board.toFen());
+        return game;
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return currentBoard.toFen();
+    }
+
+    /**
+     * @return the position the game's moves are played from, in Forsyth-Edwards Notation.
+     * That is the initial position unless the game was started from a FEN.
+     */
+    public String getStartFen() {
+        return startFen == null ? Fen.START : startFen;
+    }
+
+    void setStartFen(String fen) {
+        this.startFen = Fen.START.equals(fen) ? null : fen;
     }
 
     public Collection<ChessMove> getGameMoves() {
@@ -53,6 +106,9 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.currentTurn = team;
+        this.currentBoard.setSideToMove(team);
+        this.status = null;
+        resetHistory();
     }
 
     public void changeTurn(){
@@ -62,6 +118,8 @@ public class ChessGame {
         else {
             this.currentTurn = TeamColor.WHITE;
         }
+        this.currentBoard.setSideToMove(currentTurn);
+        this.status = null;
     }
 
     public boolean isResigned() {
@@ -80,18 +138,170 @@ public class ChessGame {
         BLACK
     }
 
-    public ChessBoard copy() {
-        ChessBoard clone = new ChessBoard();
-        for (int row = 1; row < 9; row++) {
-            for (int col = 1; col < 9; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = currentBoard.getPiece(pos);
-                if (piece != null) {
-                    clone.addPiece(pos, new ChessPiece(piece.getTeamColor(), piece.getPieceType()));
-                }
+    /**
+     * The state of the game from the point of view of the team to move
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        RESIGNED,
+        REPETITION_DRAW,
+        FIFTY_MOVE_DRAW
+    }
+
+    /**
+     * Gets the status of the team whose turn it is. It is worked out at most once per
+     * position, makeMove, setBoard and setTeamTurn throw the cached value away. A position
+     * repeated three times, or fifty moves by each side without a capture or pawn move,
+     * is a draw unless the team to move is mated or stalemated.
+     *
+     * @return the current game status
+     */
+    public GameStatus getStatus() {
+        if(resigned){
+            return GameStatus.RESIGNED;
+        }
+        GameStatus position = positionStatus();
+        if(position == GameStatus.CHECKMATE || position == GameStatus.STALEMATE){
+            return position;
+        }
+        if(currentBoard.getHalfmoveClock() >= FIFTY_MOVE_PLIES){
+            return GameStatus.FIFTY_MOVE_DRAW;
+        }
+        if(isThreefoldRepetition()){
+            return GameStatus.REPETITION_DRAW;
+        }
+        return position;
+    }
+
+    /**
+     * @return true if the current position has occurred three times, looking back only
+     * as far as the last capture or pawn move
+     */
+    public boolean isThreefoldRepetition() {
+        if(historySize == 0){
+            return false;
+        }
+        long current = positionHistory[historySize - 1];
+        int seen = 1;
+        // the same position also needs the same side to move, so only every other entry can match
+        for(int i = historySize - 3; i >= 0; i -= 2){
+            if(positionHistory[i] == current && ++seen == 3){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordPosition() {
+        if(currentBoard.getHalfmoveClock() == 0){
+            historySize = 0;
+        }
+        if(historySize == positionHistory.length){
+            positionHistory = Arrays.copyOf(positionHistory, historySize * 2);
+        }
+        positionHistory[historySize++] = currentBoard.getZobristKey();
+    }
+
+    private void resetHistory() {
+        historySize = 0;
+        recordPosition();
+    }
+
+    // the keys a repetition check can still match, oldest first, for GameCodec
+    long[] repetitionHistory() {
+        return Arrays.copyOf(positionHistory, historySize);
+    }
+
+    // puts back a game GameCodec took apart. An empty history starts from the board alone.
+    void restore(ChessBoard board, Collection<ChessMove> moves, boolean resigned, long[] history, String startFen) {
+        loadPosition(board, board.getSideToMove());
+        setStartFen(startFen);
+        this.gameMoves = moves;
+        this.resigned = resigned;
+        if(history.length > 0){
+            positionHistory = Arrays.copyOf(history, Math.max(16, history.length));
+            historySize = history.length;
+        }
+    }
+
+    // the status ignoring resignation. Fills positionMoves as a side effect.
+    private GameStatus positionStatus() {
+        if(status == null){
+            status = statusOf(currentBoard, positionMoves);
+        }
+        return status;
+    }
+
+    // the status of the side to move on the board, ignoring resignation and draws. Fills
+    // moves with its legal moves, from the shared cache when another game has already seen
+    // the position, and stores them there otherwise.
+    private static GameStatus statusOf(ChessBoard board, MoveList moves) {
+        long key = board.getZobristKey();
+        GameStatus found = PositionCache.shared().probe(key, moves);
+        if(found == null){
+            MoveGenerator.legalMoves(board, moves);
+            int king = board.kingSquare(board.sideToMove);
+            boolean inCheck = king != ChessBoard.NO_SQUARE && board.isSquareAttacked(king, 1 - board.sideToMove);
+            if(!moves.isEmpty()){
+                found = inCheck ? GameStatus.CHECK : GameStatus.ONGOING;
             }
+            else {
+                found = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            }
+            PositionCache.shared().store(key, found, moves);
+        }
+        return found;
+    }
+
+    /**
+     * Writes a legal move in standard algebraic notation, such as Nbd7, exd5, O-O or
+     * e8=Q+. Disambiguation comes from the legal moves the game already has for this
+     * position. Only a move that gives check needs the replies of the position after it,
+     * to tell check from mate, and those go through the shared position cache, so making
+     * the move afterwards finds them instead of generating them again.
+     *
+     * @param move a move for the team to move
+     * @return the move in SAN
+     * @throws InvalidMoveException if the move is not legal
+     */
+    public String toSan(ChessMove move) throws InvalidMoveException {
+        positionStatus();
+        int encoded = positionMoves.find(move);
+        if(encoded == Move.NONE){
+            throw new InvalidMoveException("Error: " + move + " is not a legal move");
+        }
+        StringBuilder san = new StringBuilder(8);
+        San.appendMove(san, currentBoard, encoded, positionMoves);
+        currentBoard.makeMove(encoded);
+        if(kingInCheck(currentTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE, currentBoard)){
+            san.append(statusOf(currentBoard, moveList) == GameStatus.CHECKMATE ? '#' : '+');
         }
-        return clone;
+        currentBoard.unmakeMove();
+        return san.toString();
+    }
+
+    /**
+     * Reads a move for the team to move written in standard algebraic notation. Check,
+     * mate and annotation marks are optional.
+     *
+     * @param san the move, such as Nf3, exd5 or O-O
+     * @return the legal move it names
+     * @throws InvalidMoveException if it names no legal move, or more than one
+     */
+    public ChessMove fromSan(String san) throws InvalidMoveException {
+        positionStatus();
+        int move = San.parse(currentBoard, san, positionMoves);
+        if(move == Move.NONE){
+            throw new InvalidMoveException("Error: " + san + " is not a legal move");
+        }
+        return Move.toChessMove(move);
+    }
+
+    public ChessBoard copy() {
+        return new ChessBoard(currentBoard);
     }
 
     /**
@@ -104,73 +314,25 @@ public class ChessGame {
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = currentBoard.getPiece(startPosition);
         if(piece.getPieceType() == null){return List.of();}
-        canCastle.setGameBoard(currentBoard);
-        Collection<ChessMove> allMoves = piece.pieceMoves(currentBoard, startPosition);
-        Collection<ChessMove> legalMoves = new ArrayList<>();
-        for(ChessMove move : allMoves){
-            ChessBoard nextBoard = copy();
-            testMove(move, nextBoard);
-            if(!kingInCheck(piece.getTeamColor(), nextBoard)){
-                legalMoves.add(move);
-            }
-        }
-        if(piece.getPieceType() == ChessPiece.PieceType.KING && (startPosition.getRow()==1 || startPosition.getRow() ==8)){
-            checkCastle(piece.getTeamColor(), currentBoard, legalMoves, startPosition);
-        }
-        return legalMoves;
-    }
-
-    public void checkCastle(ChessGame.TeamColor color, ChessBoard board, Collection<ChessMove> legalMoves, ChessPosition kingPos){
-        if(kingInCheck(color, board)){return;}
-        int col = kingPos.getColumn();
-        if(canCastle.canCastleKingSide(color)){
-            if(col+2 <9){
-            ChessPosition rightSquare = new ChessPosition(kingPos.getRow(), kingPos.getColumn()+1);
-            ChessBoard clone = copy();
-            testMove(new ChessMove(kingPos, rightSquare,null),clone);
-            if(kingInCheck(color,clone)){return;}
-            ChessPosition nextRightSquare = new ChessPosition(kingPos.getRow(), kingPos.getColumn()+2);
-            testMove(new ChessMove(rightSquare, nextRightSquare, null), clone);
-            if(!kingInCheck(color, clone)) {
-                ChessMove kingSideCastle = new ChessMove(kingPos, nextRightSquare, null);
-                legalMoves.add(kingSideCastle);
-                }
-            }
-        }
-        if(canCastle.canCastleQueenSide(color)){
-            if(col-2 > 0) {
-                ChessPosition leftSquare = new ChessPosition(kingPos.getRow(), kingPos.getColumn() - 1);
-                ChessBoard clone = copy();
-                testMove(new ChessMove(kingPos, leftSquare, null), clone);
-                if (kingInCheck(color, clone)) {
-                    return;
+        int from = ChessBoard.square(startPosition);
+        if(piece.getTeamColor() == currentTurn){
+            positionStatus();
+            moveList.clear();
+            for(int i = 0; i < positionMoves.size(); i++){
+                if(Move.from(positionMoves.get(i)) == from){
+                    moveList.add(positionMoves.get(i));
                 }
-                ChessPosition nextLeftSquare = new ChessPosition(kingPos.getRow(), kingPos.getColumn() - 2);
-                testMove(new ChessMove(leftSquare, nextLeftSquare, null), clone);
-                if (kingInCheck(color, clone)) {
-                    return;
-                }
-                ChessMove queenSideCastle = new ChessMove(kingPos, nextLeftSquare, null);
-                legalMoves.add(queenSideCastle);
             }
         }
-    }
-
-    public void testMove(ChessMove move, ChessBoard board) {
-        ChessPiece piece = board.getPiece(move.getStartPosition());
-        if (piece != null) {
-            if (move.getPromotionPiece() != null) {
-                board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
-            } else {
-                board.addPiece(move.getEndPosition(), piece);
-            }
-            board.removePiece(move.getStartPosition());
+        else {
+            MoveGenerator.legalMoves(currentBoard, from, moveList);
         }
+        return moveList.toChessMoves();
     }
 
     public boolean gameOver(){
-        return resigned || isInStalemate(TeamColor.WHITE) || isInStalemate(TeamColor.BLACK) ||
-                isInCheckmate(TeamColor.BLACK) || isInCheckmate(TeamColor.WHITE);
+        GameStatus current = getStatus();
+        return current != GameStatus.ONGOING && current != GameStatus.CHECK;
     }
 
     /**
@@ -182,7 +344,6 @@ public class ChessGame {
         if(gameOver()){
             throw new InvalidMoveException("Error: game is over");
         }
-        canCastle.setGameBoard(this.currentBoard);
         ChessPiece piece = currentBoard.getPiece(move.getStartPosition());
         if (piece == null) {
                 throw new InvalidMoveException("Error: No piece at position: " + move.getStartPosition());
@@ -190,50 +351,17 @@ public class ChessGame {
         if (piece.getTeamColor() != currentTurn) {
             throw new InvalidMoveException("Error: not your turn, current game turn is " + currentTurn);
         }
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-        if (legalMoves.isEmpty() || !legalMoves.contains(move)) {
+        positionStatus();
+        int encoded = positionMoves.find(move);
+        if (encoded == Move.NONE) {
             throw new InvalidMoveException("Error: Requested Move is Illegal for Piece type: " + piece.getPieceType());
         }
-        if (move.getPromotionPiece() == null) {
-            currentBoard.addPiece(move.getEndPosition(), piece);
-        } else {
-            ChessPiece promotionPiece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-            currentBoard.addPiece(move.getEndPosition(), promotionPiece);
-        }
-        currentBoard.removePiece(move.getStartPosition());
-
-        if(piece.getPieceType() == ChessPiece.PieceType.KING &&
-                Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn())==2) {
-            makeRookMove(move);
-        }
+        currentBoard.makeMove(encoded);
+        // a game never takes its moves back
+        currentBoard.clearUndo();
         gameMoves.add(move);
-        canCastle.updateMoves(move);
         changeTurn();
-    }
-
-    public void makeRookMove(ChessMove move){
-        int currRow = move.getEndPosition().getRow();
-        int currCol = move.getEndPosition().getColumn();
-        //king side castle
-        if(currCol - move.getStartPosition().getColumn() > 0){
-            currentBoard.removePiece(new ChessPosition(currRow, 8));
-            if(currRow == 1){
-                currentBoard.addPiece(new ChessPosition (currRow, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-            }
-            else if(currRow == 8) {
-                currentBoard.addPiece(new ChessPosition (currRow, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-            }
-        }
-        //queen side castle
-        else {
-            currentBoard.removePiece(new ChessPosition(currRow, 1));
-            if(currRow==1) {
-                currentBoard.addPiece(new ChessPosition (currRow, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-            }
-            else if(currRow==8){
-                currentBoard.addPiece(new ChessPosition (currRow, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-            }
-        }
+        recordPosition();
     }
 
     /**
@@ -243,40 +371,24 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
+        if(teamColor == currentTurn && !resigned){
+            GameStatus current = positionStatus();
+            return current == GameStatus.CHECK || current == GameStatus.CHECKMATE;
+        }
         return kingInCheck(teamColor, currentBoard);
     }
 
     public boolean kingInCheck(TeamColor kingColor, ChessBoard board){
-        ChessPosition kingPos = findKing(kingColor, board);
-        for(int row=1;row<9;row++){
-            for(int col=1;col<9;col++) {
-                ChessPosition target = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(target);
-                if (piece == null || piece.getTeamColor() == kingColor) {
-                    continue;
-                }
-                Collection<ChessMove> enemyMoves = piece.pieceMoves(board, target);
-                for(ChessMove move : enemyMoves){
-                    if(move.getEndPosition().equals(kingPos)){
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        int king = board.kingSquare(kingColor.ordinal());
+        return king != ChessBoard.NO_SQUARE && board.isSquareAttacked(king, 1 - kingColor.ordinal());
     }
 
     public ChessPosition findKing(TeamColor color, ChessBoard board){
-        for(int row=1; row <9;row++){
-            for(int col=1;col <9; col++){
-                ChessPosition target = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(target);
-                if(piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == color){
-                    return target;
-                }
-            }
+        int king = board.kingSquare(color.ordinal());
+        if(king == ChessBoard.NO_SQUARE){
+            throw new RuntimeException("King Not Found");
         }
-        throw new RuntimeException("King Not Found");
+        return MoveGenerator.position(king);
     }
 
     /**
@@ -286,6 +398,9 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if(teamColor == currentTurn && !resigned){
+            return positionStatus() == GameStatus.CHECKMATE;
+        }
         if(!kingInCheck(teamColor, currentBoard)){
             return false;
         }
@@ -293,18 +408,7 @@ public class ChessGame {
     }
 
     public boolean hasNoLegalMoves(TeamColor teamColor){
-        Collection<ChessMove> savingMoves = new ArrayList<>();
-        for(int row=1;row<9;row++){
-            for(int col =1;col<9;col++){
-                ChessPosition target = new ChessPosition(row,col);
-                ChessPiece targetPiece = currentBoard.getPiece(target);
-                if(targetPiece != null && targetPiece.getTeamColor() == teamColor){
-                    Collection<ChessMove> legalMoves = validMoves(target);
-                    savingMoves.addAll(legalMoves);
-                }
-            }
-        }
-        return savingMoves.isEmpty();
+        return !MoveGenerator.hasLegalMove(currentBoard, teamColor);
     }
 
     /**
@@ -315,19 +419,65 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if(isInCheck(teamColor)){
+        if(teamColor == currentTurn && !resigned){
+            return positionStatus() == GameStatus.STALEMATE;
+        }
+        if(kingInCheck(teamColor, currentBoard)){
             return false;
         }
         return hasNoLegalMoves(teamColor);
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board, keeping its castling rights. A
+     * board set up with addPiece has no rights to keep, so the game plays on a copy of
+     * it with the rights its kings and rooks on their starting squares imply.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
+        if(board.placedByHand){
+            board = new ChessBoard(board);
+            board.inferCastlingRights();
+        }
+        loadPosition(board, currentTurn);
+    }
+
+    // takes the board's castling rights and en passant square as they are
+    void loadPosition(ChessBoard board, TeamColor turn) {
         this.currentBoard = board;
+        this.currentTurn = turn;
+        this.currentBoard.setSideToMove(turn);
+        this.currentBoard.clearUndo();
+        this.status = null;
+        resetHistory();
+    }
+
+    // finishes a game stored before the bitboards, whose board came back from the piece
+    // grid alone. Replaying its moves from the start recovers the castling rights, en
+    // passant square, clocks and repetition history. A game whose moves do not lead to its
+    // board keeps the board, with the side to move taken from currentTurn.
+    private void upgradeLegacy() {
+        if(gameMoves == null){
+            gameMoves = new ArrayList<>();
+        }
+        TeamColor turn = currentTurn == null ? TeamColor.WHITE : currentTurn;
+        ChessGame replay = new ChessGame();
+        try {
+            for(ChessMove move : gameMoves){
+                replay.makeMove(move);
+            }
+        } catch(InvalidMoveException e) {
+            replay = null;
+        }
+        if(replay != null && replay.currentTurn == turn && replay.currentBoard.equals(currentBoard)){
+            loadPosition(replay.currentBoard, turn);
+            positionHistory = replay.positionHistory;
+            historySize = replay.historySize;
+        }
+        else {
+            loadPosition(currentBoard, turn);
+        }
     }
 
     /**
@@ -345,12 +495,39 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return isInCheck == chessGame.isInCheck && isInCheckmate == chessGame.isInCheckmate && isInStalemate == chessGame.isInStalemate
-                && Objects.equals(currentBoard, chessGame.currentBoard) && currentTurn == chessGame.currentTurn;
+        return Objects.equals(currentBoard, chessGame.currentBoard) && currentTurn == chessGame.currentTurn;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(currentBoard, isInCheck, isInCheckmate, isInStalemate, currentTurn);
+        return Objects.hash(currentBoard, currentTurn);
+    }
+
+    // reads and writes the fields as they are, and upgrades games stored before the
+    // bitboards, recognized by the "board" grid in their currentBoard
+    static final class Adapter implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            TypeAdapter<ChessGame> fields = gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class));
+            TypeAdapter<JsonElement> trees = gson.getAdapter(JsonElement.class);
+            return (TypeAdapter<T>) new TypeAdapter<ChessGame>() {
+                @Override
+                public void write(JsonWriter out, ChessGame game) throws IOException {
+                    fields.write(out, game);
+                }
+
+                @Override
+                public ChessGame read(JsonReader in) throws IOException {
+                    JsonElement tree = trees.read(in);
+                    ChessGame game = fields.fromJsonTree(tree);
+                    JsonElement board = tree.isJsonObject() ? tree.getAsJsonObject().get("currentBoard") : null;
+                    if(game != null && board != null && board.isJsonObject() && board.getAsJsonObject().has("board")){
+                        game.upgradeLegacy();
+                    }
+                    return game;
+                }
+            };
+        }
     }
 }
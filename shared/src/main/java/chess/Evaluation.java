@@ -0,0 +1,48 @@
+package chess;
+
+/**
+ * Static evaluation in centipawns from the point of view of the side to move:
+ * material plus a small bonus for centralised minor pieces and advanced pawns.
+ */
+final class Evaluation {
+
+    // indexed by piece type ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    // bonus for a piece's distance from the edge, 0 on the rim up to 3 in the centre
+    private static final int[] CENTRE = new int[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            CENTRE[square] = Math.min(Math.min(row, 7 - row), Math.min(col, 7 - col));
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    static int evaluate(ChessBoard board) {
+        int score = side(board, ChessBoard.WHITE) - side(board, ChessBoard.BLACK);
+        return board.sideToMove == ChessBoard.WHITE ? score : -score;
+    }
+
+    private static int side(ChessBoard board, int color) {
+        int first = ChessBoard.pieceIndex(color, 0);
+        int score = 0;
+        for (int type = MoveGenerator.QUEEN; type <= MoveGenerator.PAWN; type++) {
+            for (long bits = board.pieces[first + type]; bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                score += VALUES[type];
+                if (type == MoveGenerator.KNIGHT || type == MoveGenerator.BISHOP) {
+                    score += CENTRE[square] * 10;
+                } else if (type == MoveGenerator.PAWN) {
+                    int advance = color == ChessBoard.WHITE ? square / 8 - 1 : 6 - square / 8;
+                    score += advance * 5 + CENTRE[square] * 5;
+                }
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,185 @@
+package chess;
+
+/**
+ * Forsyth-Edwards Notation, read and written one character at a time: placement, side
+ * to move, castling rights, en passant square, halfmove clock and fullmove number.
+ */
+final class Fen {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final char[] CASTLING_LETTERS = {'K', 'Q', 'k', 'q'};
+
+    private Fen() {
+    }
+
+    static ChessBoard parse(String fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = 0;
+        int row = 8;
+        int col = 1;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw invalid(fen, "rank " + row + " is not 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int piece = symbolIndex(c);
+                if (piece == ChessBoard.EMPTY || col > 8) {
+                    throw invalid(fen, "bad placement character '" + c + "'");
+                }
+                board.setSquare(ChessBoard.square(row, col++), piece);
+            }
+            if (col > 9) {
+                throw invalid(fen, "rank " + row + " is longer than 8 squares");
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw invalid(fen, "placement does not cover 64 squares");
+        }
+
+        i = skipSpace(fen, i);
+        if (i >= length || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')) {
+            throw invalid(fen, "side to move must be w or b");
+        }
+        board.sideToMove = fen.charAt(i++) == 'w' ? ChessBoard.WHITE : ChessBoard.BLACK;
+
+        i = skipSpace(fen, i);
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                int right = indexOf(CASTLING_LETTERS, fen.charAt(i));
+                if (right < 0) {
+                    throw invalid(fen, "bad castling character '" + fen.charAt(i) + "'");
+                }
+                board.castlingRights |= 1 << right;
+            }
+        }
+
+        i = skipSpace(fen, i);
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < length) {
+            int file = fen.charAt(i) - 'a' + 1;
+            int rank = fen.charAt(i + 1) - '0';
+            if (file < 1 || file > 8 || (rank != 3 && rank != 6)) {
+                throw invalid(fen, "bad en passant square");
+            }
+            board.enPassantSquare = ChessBoard.square(rank, file);
+            i += 2;
+        } else {
+            throw invalid(fen, "missing en passant square");
+        }
+
+        // the clocks are optional, plenty of FEN in the wild leaves them off
+        i = skipSpace(fen, i);
+        if (i < length) {
+            int end = numberEnd(fen, i);
+            board.halfmoveClock = number(fen, i, end);
+            i = skipSpace(fen, end);
+            if (i < length) {
+                end = numberEnd(fen, i);
+                board.fullmoveNumber = Math.max(1, number(fen, i, end));
+                i = end;
+            }
+        }
+        if (i != length) {
+            throw invalid(fen, "unexpected text after the fullmove number");
+        }
+        return board;
+    }
+
+    static String write(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int piece = board.pieceAt(ChessBoard.square(row, col));
+                if (piece == ChessBoard.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(ChessBoard.SYMBOLS[piece]);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(board.sideToMove == ChessBoard.WHITE ? " w " : " b ");
+        if (board.castlingRights == 0) {
+            fen.append('-');
+        }
+        for (int right = 0; right < CASTLING_LETTERS.length; right++) {
+            if ((board.castlingRights & (1 << right)) != 0) {
+                fen.append(CASTLING_LETTERS[right]);
+            }
+        }
+        fen.append(' ');
+        if (board.enPassantSquare == ChessBoard.NO_SQUARE) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + board.enPassantSquare % 8)).append((char) ('1' + board.enPassantSquare / 8));
+        }
+        return fen.append(' ').append(board.halfmoveClock).append(' ').append(board.fullmoveNumber).toString();
+    }
+
+    private static int symbolIndex(char c) {
+        return indexOf(ChessBoard.SYMBOLS, c);
+    }
+
+    private static int indexOf(char[] letters, char c) {
+        for (int i = 0; i < letters.length; i++) {
+            if (letters[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpace(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int numberEnd(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int number(String fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw invalid(fen, "bad move counter");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(fen, "bad move counter");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(String fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
@@ -0,0 +1,151 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A compact binary form of a {@link ChessGame} for storage, in place of its JSON.
+ * Version 1 is laid out as:
+ * <pre>
+ *   1 byte   version
+ *  32 bytes  piece placement, one nibble per square from a1 to h8, low nibble first:
+ *            0 for empty, otherwise the piece index + 1
+ *   1 byte   castling rights in bits 0-3, black to move in bit 4, resigned in bit 5
+ *   1 byte   en passant square, or 0xFF for none
+ *   2 bytes  halfmove clock
+ *   2 bytes  fullmove number
+ *   2 bytes  n, then n 8-byte Zobrist keys of the positions a repetition can return to
+ *   2 bytes  m, then m 16-bit moves as {@link Move} packs them, with only a promotion flag
+ *   1 byte   k, then k bytes of the FEN the moves start from, k is 0 for the initial position
+ * </pre>
+ * Everything is big-endian. A game takes 44 bytes, plus 2 per move and 8 per position
+ * since the last capture or pawn move. The fifty-move rule ends a game before it has
+ * more than 101 of those, so the keys add at most 808 bytes. Reading a game back needs
+ * no reflection and no replaying of moves.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 1;
+
+    private static final int BLACK_TO_MOVE = 1 << 4;
+    private static final int RESIGNED = 1 << 5;
+    private static final int NO_EN_PASSANT = 0xFF;
+    private static final int MAX_COUNT = 0xFFFF;
+    private static final int MAX_START_LENGTH = 0xFF;
+
+    private GameCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long[] history = game.repetitionHistory();
+        Collection<ChessMove> moves = game.getGameMoves();
+        if (history.length > MAX_COUNT || moves.size() > MAX_COUNT) {
+            throw new IllegalArgumentException("Game is too long to encode: " + moves.size() + " moves");
+        }
+        String startFen = game.getStartFen();
+        byte[] start = Fen.START.equals(startFen) ? new byte[0] : startFen.getBytes(StandardCharsets.US_ASCII);
+        if (start.length > MAX_START_LENGTH) {
+            throw new IllegalArgumentException("Starting position is too long to encode: " + startFen);
+        }
+        ByteBuffer out = ByteBuffer.allocate(1 + 32 + 1 + 1 + 2 + 2 + 2 + 8 * history.length + 2 + 2 * moves.size()
+                + 1 + start.length);
+        out.put((byte) VERSION);
+        for (int square = 0; square < 64; square += 2) {
+            out.put((byte) (nibble(board, square) | nibble(board, square + 1) << 4));
+        }
+        int flags = board.castlingRights;
+        if (board.sideToMove == ChessBoard.BLACK) {
+            flags |= BLACK_TO_MOVE;
+        }
+        if (game.isResigned()) {
+            flags |= RESIGNED;
+        }
+        out.put((byte) flags);
+        out.put((byte) (board.enPassantSquare == ChessBoard.NO_SQUARE ? NO_EN_PASSANT : board.enPassantSquare));
+        out.putShort((short) Math.min(board.halfmoveClock, MAX_COUNT));
+        out.putShort((short) Math.min(board.fullmoveNumber, MAX_COUNT));
+        out.putShort((short) history.length);
+        for (long key : history) {
+            out.putLong(key);
+        }
+        out.putShort((short) moves.size());
+        for (ChessMove move : moves) {
+            out.putShort((short) pack(move));
+        }
+        out.put((byte) start.length);
+        out.put(start);
+        return out.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a game this version can read
+     */
+    public static ChessGame decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            int version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown game encoding version " + version);
+            }
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int pair = in.get();
+                place(board, square, pair & 15);
+                place(board, square + 1, pair >>> 4 & 15);
+            }
+            int flags = in.get() & 0xFF;
+            board.castlingRights = flags & ChessBoard.ALL_CASTLING;
+            board.sideToMove = (flags & BLACK_TO_MOVE) != 0 ? ChessBoard.BLACK : ChessBoard.WHITE;
+            int enPassant = in.get() & 0xFF;
+            board.enPassantSquare = enPassant == NO_EN_PASSANT ? ChessBoard.NO_SQUARE : enPassant;
+            board.halfmoveClock = Short.toUnsignedInt(in.getShort());
+            board.fullmoveNumber = Short.toUnsignedInt(in.getShort());
+            long[] history = new long[Short.toUnsignedInt(in.getShort())];
+            for (int i = 0; i < history.length; i++) {
+                history[i] = in.getLong();
+            }
+            int moveCount = Short.toUnsignedInt(in.getShort());
+            List<ChessMove> moves = new ArrayList<>(moveCount);
+            for (int i = 0; i < moveCount; i++) {
+                int move = Short.toUnsignedInt(in.getShort());
+                moves.add(new ChessMove(MoveGenerator.position(Move.from(move)), MoveGenerator.position(Move.to(move)),
+                        Move.promotionType(move)));
+            }
+            byte[] start = new byte[in.get() & 0xFF];
+            in.get(start);
+            String startFen = start.length == 0 ? Fen.START : new String(start, StandardCharsets.US_ASCII);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected bytes after the game");
+            }
+            ChessGame game = new ChessGame();
+            game.restore(board, moves, (flags & RESIGNED) != 0, history, startFen);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Game encoding is cut short", e);
+        }
+    }
+
+    private static int nibble(ChessBoard board, int square) {
+        return board.pieceAt(square) + 1;
+    }
+
+    private static void place(ChessBoard board, int square, int nibble) {
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Bad piece " + nibble + " on square " + square);
+        }
+        if (nibble != 0) {
+            board.setSquare(square, nibble - 1);
+        }
+    }
+
+    private static int pack(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return Move.of(ChessBoard.square(move.getStartPosition()), ChessBoard.square(move.getEndPosition()),
+                promotion == null ? 0 : Move.promotionFlag(promotion));
+    }
+}
@@ -0,0 +1,112 @@
+package chess;
+
+/**
+ * Moves packed into the low 16 bits of an int, so move generation and search never
+ * allocate: bits 0-5 hold the start square, bits 6-11 the end square and bits 12-15
+ * a flag saying what kind of move it is. {@link ChessMove} objects are only built
+ * when a move leaves the engine.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    static final int QUIET = 0;
+    static final int DOUBLE_PAWN_PUSH = 1;
+    static final int KING_CASTLE = 2;
+    static final int QUEEN_CASTLE = 3;
+    static final int CAPTURE = 4;
+    static final int EN_PASSANT = 5;
+    // promotions are 8 + the promotion code, plus CAPTURE if they also take a piece
+    static final int PROMOTION = 8;
+
+    // promotion code (flag & 3) to piece type
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    private Move() {
+    }
+
+    static int of(int from, int to, int flag) {
+        return from | to << 6 | flag << 12;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+
+    static int flag(int move) {
+        return move >>> 12 & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flag(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flag(move) & PROMOTION) != 0;
+    }
+
+    static boolean isCastle(int move) {
+        int flag = flag(move);
+        return flag == KING_CASTLE || flag == QUEEN_CASTLE;
+    }
+
+    /**
+     * @return the piece type a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotionType(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[flag(move) & 3] : null;
+    }
+
+    static int promotionFlag(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KNIGHT -> PROMOTION;
+            case BISHOP -> PROMOTION | 1;
+            case ROOK -> PROMOTION | 2;
+            case QUEEN -> PROMOTION | 3;
+            default -> throw new IllegalArgumentException("Pawns can not promote to " + type);
+        };
+    }
+
+    /**
+     * Encodes a move played on the given board, working out its flag from the pieces
+     * on the start and end squares
+     */
+    public static int encode(ChessBoard board, ChessMove move) {
+        int from = ChessBoard.square(move.getStartPosition());
+        int to = ChessBoard.square(move.getEndPosition());
+        int piece = board.pieceAt(from);
+        int type = piece == ChessBoard.EMPTY ? ChessBoard.EMPTY : ChessBoard.typeOf(piece);
+        boolean capture = board.pieceAt(to) != ChessBoard.EMPTY;
+        int flag = capture ? CAPTURE : QUIET;
+        if (move.getPromotionPiece() != null) {
+            flag |= promotionFlag(move.getPromotionPiece());
+        } else if (type == MoveGenerator.KING && from % 8 == 4 && Math.abs(to - from) == 2) {
+            flag = to > from ? KING_CASTLE : QUEEN_CASTLE;
+        } else if (type == MoveGenerator.PAWN && to == board.enPassantSquare && from % 8 != to % 8) {
+            flag = EN_PASSANT;
+        } else if (type == MoveGenerator.PAWN && Math.abs(to - from) == 16) {
+            flag = DOUBLE_PAWN_PUSH;
+        }
+        return of(from, to, flag);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(MoveGenerator.position(from(move)), MoveGenerator.position(to(move)), promotionType(move));
+    }
+
+    /**
+     * @return true if the encoded move and the ChessMove go between the same squares
+     * with the same promotion
+     */
+    public static boolean matches(int move, ChessMove chessMove) {
+        return from(move) == ChessBoard.square(chessMove.getStartPosition())
+                && to(move) == ChessBoard.square(chessMove.getEndPosition())
+                && promotionType(move) == chessMove.getPromotionPiece();
+    }
+}
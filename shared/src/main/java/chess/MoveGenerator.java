@@ -0,0 +1,357 @@
+package chess;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bitboard move generation. Targets for every piece come straight out of the
+ * {@link Attacks} tables, so no piece walks its rays square by square.
+ */
+public final class MoveGenerator {
+
+    static final int KING = ChessPiece.PieceType.KING.ordinal();
+    static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Calculates all the moves the piece on the given square can make, without
+     * taking into account moves that leave the king in danger
+     *
+     * @return Collection of moves, empty if the square is empty
+     */
+    public static Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition position) {
+        int from = ChessBoard.square(position);
+        int piece = board.pieceAt(from);
+        if (piece == ChessBoard.EMPTY) {
+            return List.of();
+        }
+        int color = ChessBoard.colorOf(piece);
+        int type = ChessBoard.typeOf(piece);
+        MoveList moves = new MoveList();
+        if (type == PAWN) {
+            addPawnMoves(board, from, pawnTargets(board, from, color), color, moves);
+        } else {
+            long targets = attacks(type, from, board.occupied) & ~board.colors[color];
+            addMoves(board, from, targets, moves);
+        }
+        return moves.toChessMoves();
+    }
+
+    /**
+     * @return the squares a non-pawn piece of the given type attacks from the square
+     */
+    static long attacks(int type, int square, long occupied) {
+        if (type == KNIGHT) {
+            return Attacks.KNIGHT[square];
+        } else if (type == BISHOP) {
+            return Attacks.bishop(square, occupied);
+        } else if (type == ROOK) {
+            return Attacks.rook(square, occupied);
+        } else if (type == QUEEN) {
+            return Attacks.queen(square, occupied);
+        } else if (type == KING) {
+            return Attacks.KING[square];
+        }
+        return 0;
+    }
+
+    private static void addPawnMoves(ChessBoard board, int from, long targets, int color, MoveList moves) {
+        long lastRank = color == ChessBoard.WHITE ? Attacks.RANK_8 : Attacks.RANK_1;
+        for (long quiet = targets & ~lastRank; quiet != 0; quiet &= quiet - 1) {
+            int to = Long.numberOfTrailingZeros(quiet);
+            int flag;
+            if ((board.occupied & (1L << to)) != 0) {
+                flag = Move.CAPTURE;
+            } else if (to == board.enPassantSquare && (to - from) % 8 != 0) {
+                flag = Move.EN_PASSANT;
+            } else {
+                flag = Math.abs(to - from) == 16 ? Move.DOUBLE_PAWN_PUSH : Move.QUIET;
+            }
+            moves.add(Move.of(from, to, flag));
+        }
+        for (long promotions = targets & lastRank; promotions != 0; promotions &= promotions - 1) {
+            int to = Long.numberOfTrailingZeros(promotions);
+            int capture = (board.occupied & (1L << to)) != 0 ? Move.CAPTURE : 0;
+            for (ChessPiece.PieceType type : PROMOTIONS) {
+                moves.add(Move.of(from, to, Move.promotionFlag(type) | capture));
+            }
+        }
+    }
+
+    private static long pawnTargets(ChessBoard board, int from, int color) {
+        int forward = color == ChessBoard.WHITE ? 8 : -8;
+        int startRow = color == ChessBoard.WHITE ? 1 : 6;
+        long targets = Attacks.PAWN[color][from] & board.colors[1 - color];
+        // only the side to move can take en passant, the square is stale for the other side
+        if (board.enPassantSquare != ChessBoard.NO_SQUARE && color == board.sideToMove) {
+            targets |= Attacks.PAWN[color][from] & (1L << board.enPassantSquare);
+        }
+        int push = from + forward;
+        if (push >= 0 && push < 64 && (board.occupied & (1L << push)) == 0) {
+            targets |= 1L << push;
+            int doublePush = push + forward;
+            if (from / 8 == startRow && (board.occupied & (1L << doublePush)) == 0) {
+                targets |= 1L << doublePush;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Generates only legal moves for one piece: checkers and pinned pieces are worked out
+     * once for the position and every candidate is masked against them, so no move is
+     * ever tried on a board.
+     *
+     * @return Collection of legal moves, empty if the square is empty
+     */
+    public static Collection<ChessMove> legalMoves(ChessBoard board, ChessPosition position) {
+        MoveList moves = new MoveList();
+        legalMoves(board, ChessBoard.square(position), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * @return every legal move for the given team
+     */
+    public static Collection<ChessMove> legalMoves(ChessBoard board, ChessGame.TeamColor color) {
+        MoveList moves = new MoveList();
+        generateLegal(board, color.ordinal(), -1L, -1L, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Replaces the contents of the list with the legal moves of the piece on the square
+     */
+    static void legalMoves(ChessBoard board, int square, MoveList moves) {
+        moves.clear();
+        int piece = board.pieceAt(square);
+        if (piece != ChessBoard.EMPTY) {
+            generateLegal(board, ChessBoard.colorOf(piece), 1L << square, -1L, moves);
+        }
+    }
+
+    /**
+     * Replaces the contents of the list with every legal move for the side to move
+     */
+    public static void legalMoves(ChessBoard board, MoveList moves) {
+        moves.clear();
+        generateLegal(board, board.sideToMove, -1L, -1L, moves);
+    }
+
+    /**
+     * Replaces the contents of the list with the legal captures and promotions for the
+     * side to move, the only moves a quiescence search plays
+     */
+    public static void legalCaptures(ChessBoard board, MoveList moves) {
+        moves.clear();
+        generateLegal(board, board.sideToMove, -1L, board.colors[1 - board.sideToMove], moves);
+    }
+
+    /**
+     * @return true if the given team has at least one legal move, stopping at the first one found
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color) {
+        return generateLegal(board, color.ordinal(), -1L, -1L, null);
+    }
+
+    /**
+     * Generates the legal moves of the pieces of one color on the squares in fromMask,
+     * landing on the squares in toMask. Pawns also keep their promotions and en passant
+     * captures whatever the mask, and castling, a quiet move, is only generated when every
+     * square is allowed. With a null list it only reports whether a legal move exists.
+     */
+    private static boolean generateLegal(ChessBoard board, int color, long fromMask, long toMask, MoveList moves) {
+        int enemy = 1 - color;
+        long pawnMask = toMask | (color == ChessBoard.WHITE ? Attacks.RANK_8 : Attacks.RANK_1);
+        long own = board.colors[color];
+        long occupied = board.occupied;
+        long kingBit = board.pieces[ChessBoard.pieceIndex(color, KING)];
+        int king = Long.numberOfTrailingZeros(kingBit);
+        long checkMask = -1L;
+        long pinned = 0;
+        boolean found = false;
+
+        if (kingBit != 0) {
+            long checkers = attackersTo(board, king, enemy, occupied);
+            if (Long.bitCount(checkers) > 1) {
+                checkMask = 0;
+            } else if (checkers != 0) {
+                checkMask = checkers | Attacks.BETWEEN[king][Long.numberOfTrailingZeros(checkers)];
+            }
+            pinned = pinnedPieces(board, king, color);
+
+            if ((fromMask & kingBit) != 0) {
+                long targets = Attacks.KING[king] & ~own & toMask;
+                for (; targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    if (!board.isSquareAttacked(to, enemy, occupied ^ kingBit)) {
+                        if (moves == null) {
+                            return true;
+                        }
+                        int flag = (occupied & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET;
+                        moves.add(Move.of(king, to, flag));
+                        found = true;
+                    }
+                }
+                if (checkers == 0 && toMask == -1L && addCastles(board, color, king, moves)) {
+                    if (moves == null) {
+                        return true;
+                    }
+                    found = true;
+                }
+            }
+        }
+        if (checkMask == 0) {
+            return found;
+        }
+
+        for (long pieces = own & ~kingBit & fromMask; pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            int type = ChessBoard.typeOf(board.pieceAt(from));
+            long targets = type == PAWN ? pawnTargets(board, from, color) : attacks(type, from, occupied) & ~own & toMask;
+            long enPassant = 0;
+            if (type == PAWN) {
+                if (board.enPassantSquare != ChessBoard.NO_SQUARE) {
+                    enPassant = targets & (1L << board.enPassantSquare);
+                    targets &= ~enPassant;
+                }
+                targets &= pawnMask;
+            }
+            targets &= checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                targets &= Attacks.LINE[king][from];
+            }
+            if (enPassant != 0 && enPassantIsLegal(board, from, color, kingBit, checkMask)) {
+                targets |= enPassant;
+            }
+            if (targets == 0) {
+                continue;
+            }
+            if (moves == null) {
+                return true;
+            }
+            found = true;
+            if (type == PAWN) {
+                addPawnMoves(board, from, targets, color, moves);
+            } else {
+                addMoves(board, from, targets, moves);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Castling needs the right still held (the board drops it when the king or rook moves
+     * or the rook is taken), the rook in its corner, nothing between them, and neither
+     * square the king crosses attacked. The caller has already checked the king is not
+     * in check.
+     */
+    private static boolean addCastles(ChessBoard board, int color, int king, MoveList moves) {
+        // this color's king side right in bit 0, queen side in bit 1
+        int rights = board.castlingRights >> (color * 2) & 3;
+        if (rights == 0 || king != (color == ChessBoard.WHITE ? 4 : 60)) {
+            return false;
+        }
+        int enemy = 1 - color;
+        long rooks = board.pieces[ChessBoard.pieceIndex(color, ROOK)];
+        boolean found = false;
+        if ((rights & 1) != 0 && (rooks & (1L << (king + 3))) != 0
+                && (board.occupied & (3L << (king + 1))) == 0
+                && !board.isSquareAttacked(king + 1, enemy) && !board.isSquareAttacked(king + 2, enemy)) {
+            if (moves == null) {
+                return true;
+            }
+            moves.add(Move.of(king, king + 2, Move.KING_CASTLE));
+            found = true;
+        }
+        if ((rights & 2) != 0 && (rooks & (1L << (king - 4))) != 0
+                && (board.occupied & (7L << (king - 3))) == 0
+                && !board.isSquareAttacked(king - 1, enemy) && !board.isSquareAttacked(king - 2, enemy)) {
+            if (moves == null) {
+                return true;
+            }
+            moves.add(Move.of(king, king - 2, Move.QUEEN_CASTLE));
+            found = true;
+        }
+        return found;
+    }
+
+    /**
+     * En passant takes a pawn off a square other than the one the capturing pawn lands on,
+     * so the usual masks are not enough: the capture resolves a check if it either takes
+     * the checking pawn or blocks on the en passant square, and it is only legal if no
+     * slider sees the king once both pawns have left their squares. That last test also
+     * catches the two pawns side by side on the king's rank shielding it from a rook.
+     */
+    private static boolean enPassantIsLegal(ChessBoard board, int from, int color, long kingBit, long checkMask) {
+        int target = board.enPassantSquare;
+        int captured = target + (color == ChessBoard.WHITE ? -8 : 8);
+        if ((checkMask & ((1L << target) | (1L << captured))) == 0) {
+            return false;
+        }
+        if (kingBit == 0) {
+            return true;
+        }
+        int king = Long.numberOfTrailingZeros(kingBit);
+        int enemy = 1 - color;
+        long occupied = board.occupied ^ (1L << from) ^ (1L << captured) | (1L << target);
+        long queens = board.pieces[ChessBoard.pieceIndex(enemy, QUEEN)];
+        return (Attacks.rook(king, occupied) & (board.pieces[ChessBoard.pieceIndex(enemy, ROOK)] | queens)) == 0
+                && (Attacks.bishop(king, occupied) & (board.pieces[ChessBoard.pieceIndex(enemy, BISHOP)] | queens)) == 0;
+    }
+
+    // own pieces that are the only thing standing between the king and an enemy slider
+    private static long pinnedPieces(ChessBoard board, int king, int color) {
+        int enemy = 1 - color;
+        long enemies = board.colors[enemy];
+        long queens = board.pieces[ChessBoard.pieceIndex(enemy, QUEEN)];
+        long snipers = (Attacks.rook(king, enemies) & (board.pieces[ChessBoard.pieceIndex(enemy, ROOK)] | queens))
+                | (Attacks.bishop(king, enemies) & (board.pieces[ChessBoard.pieceIndex(enemy, BISHOP)] | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.BETWEEN[king][Long.numberOfTrailingZeros(snipers)] & board.occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.colors[color];
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * @return the pieces of the given color attacking the square, looking outward from
+     * the square with each piece's attack pattern
+     */
+    static long attackersTo(ChessBoard board, int square, int color, long occupied) {
+        long[] pieces = board.pieces;
+        int first = ChessBoard.pieceIndex(color, 0);
+        long queens = pieces[first + QUEEN];
+        return (Attacks.PAWN[1 - color][square] & pieces[first + PAWN])
+                | (Attacks.KNIGHT[square] & pieces[first + KNIGHT])
+                | (Attacks.KING[square] & pieces[first + KING])
+                | (Attacks.bishop(square, occupied) & (pieces[first + BISHOP] | queens))
+                | (Attacks.rook(square, occupied) & (pieces[first + ROOK] | queens));
+    }
+
+    private static void addMoves(ChessBoard board, int from, long targets, MoveList moves) {
+        for (long captures = targets & board.occupied; captures != 0; captures &= captures - 1) {
+            moves.add(Move.of(from, Long.numberOfTrailingZeros(captures), Move.CAPTURE));
+        }
+        for (long quiet = targets & ~board.occupied; quiet != 0; quiet &= quiet - 1) {
+            moves.add(Move.of(from, Long.numberOfTrailingZeros(quiet), Move.QUIET));
+        }
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reusable, int[]-backed list of encoded {@link Move}s. Clearing it keeps the array,
+ * so one list per search ply (or per game) serves every call without allocating.
+ */
+public final class MoveList {
+
+    // no legal chess position has more than 218 moves
+    private static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the encoded move matching the ChessMove, or {@link Move#NONE}
+     */
+    public int find(ChessMove move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.matches(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
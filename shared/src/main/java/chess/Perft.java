@@ -0,0 +1,145 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, the standard check of a
+ * move generator against published counts. {@link #divide} also reports the count under
+ * each root move, which is how a wrong total is narrowed down to the move that is missing
+ * or extra.
+ * <p>
+ * The root moves, and the moves below them down to the split depth, become fork/join
+ * tasks that each play on their own copy of the board, so the walk uses every core.
+ */
+public final class Perft {
+
+    /**
+     * @param nodes        leaf nodes at the requested depth
+     * @param divide       leaf nodes under each root move, in generation order
+     * @param elapsedNanos wall time of the walk
+     */
+    public record Result(long nodes, Map<ChessMove, Long> divide, long elapsedNanos) {
+
+        public double nodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+    }
+
+    // below this many plies left a task walks its subtree itself instead of forking
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    private Perft() {
+    }
+
+    /**
+     * Counts leaves on the calling thread. The board is played on and restored.
+     */
+    public static long count(ChessBoard board, int depth) {
+        return walk(board, depth, newMoveLists(depth));
+    }
+
+    /**
+     * Counts leaves under each root move in parallel on the common pool
+     */
+    public static Result divide(ChessBoard board, int depth) {
+        return divide(board, depth, ForkJoinPool.commonPool(), 1);
+    }
+
+    /**
+     * @param splitDepth how many plies below the root are also split into tasks
+     */
+    public static Result divide(ChessBoard board, int depth, ForkJoinPool pool, int splitDepth) {
+        long start = System.nanoTime();
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, moves);
+        List<Node> roots = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            ChessBoard child = new ChessBoard(board);
+            child.makeMove(moves.get(i));
+            roots.add(new Node(child, depth - 1, splitDepth));
+        }
+        if (depth > 0) {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(roots);
+                    return null;
+                }
+            });
+        }
+
+        Map<ChessMove, Long> divide = new LinkedHashMap<>();
+        long nodes = depth == 0 ? 1 : 0;
+        for (int i = 0; depth > 0 && i < roots.size(); i++) {
+            long count = roots.get(i).join();
+            divide.put(Move.toChessMove(moves.get(i)), count);
+            nodes += count;
+        }
+        return new Result(nodes, Collections.unmodifiableMap(divide), System.nanoTime() - start);
+    }
+
+    private static final class Node extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final int depth;
+        private final int splitDepth;
+
+        Node(ChessBoard board, int depth, int splitDepth) {
+            this.board = board;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitDepth <= 0 || depth <= SEQUENTIAL_DEPTH) {
+                return walk(board, depth, newMoveLists(depth));
+            }
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(board, moves);
+            List<Node> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessBoard child = new ChessBoard(board);
+                child.makeMove(moves.get(i));
+                children.add(new Node(child, depth - 1, splitDepth - 1));
+            }
+            long nodes = 0;
+            for (Node child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static long walk(ChessBoard board, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[depth];
+        MoveGenerator.legalMoves(board, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += walk(board, depth - 1, lists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // one reusable move list per ply, so the sequential walk allocates nothing
+    private static MoveList[] newMoveLists(int depth) {
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+}
@@ -0,0 +1,60 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game of a PGN file: its tag pairs in file order, its moves and its result
+ * ({@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *}). A game that does not start
+ * from the initial position carries a {@code FEN} tag.
+ */
+public record PgnGame(Map<String, String> tags, List<ChessMove> moves, String result) {
+
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNFINISHED = "*";
+
+    public String tag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return the starting position, from the FEN tag if there is one
+     */
+    public ChessBoard startingBoard() {
+        String fen = tags.get("FEN");
+        return ChessBoard.fromFen(fen == null ? Fen.START : fen);
+    }
+
+    /**
+     * Replays the moves into a game. The moves were checked when the game was read, so
+     * they are played without going through {@link ChessGame#makeMove}, which would stop
+     * at a repetition or fifty-move draw that a PGN game may well have played on past.
+     */
+    public ChessGame toGame() {
+        ChessBoard board = startingBoard();
+        String start = board.toFen();
+        for (ChessMove move : moves) {
+            board.makeMove(move);
+        }
+        ChessGame game = new ChessGame();
+        game.loadPosition(board, board.getSideToMove());
+        game.setGameMoves(new ArrayList<>(moves));
+        game.setStartFen(start);
+        return game;
+    }
+
+    /**
+     * @return the PGN result of a game as it stands, {@code *} while it is still going
+     * or when it ended by resignation, which does not record who resigned
+     */
+    public static String resultOf(ChessGame game) {
+        return switch (game.getStatus()) {
+            case CHECKMATE -> game.getTeamTurn() == ChessGame.TeamColor.WHITE ? BLACK_WINS : WHITE_WINS;
+            case STALEMATE, REPETITION_DRAW, FIFTY_MOVE_DRAW -> DRAW;
+            default -> UNFINISHED;
+        };
+    }
+}
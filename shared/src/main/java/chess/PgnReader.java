@@ -0,0 +1,475 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads PGN one game at a time from a character stream, so memory stays at one game
+ * however large the file. Moves are matched against the legal moves of the position
+ * as they are read, one generation per ply. Comments, variations, numeric annotations
+ * and move numbers are skipped.
+ * <p>
+ * A game with an illegal or unreadable move makes {@link #next()} throw, after the
+ * reader has skipped to the end of that game, so the caller can carry on with the
+ * next one. {@link #readParallel} splits a file between threads at game boundaries.
+ */
+public final class PgnReader implements Closeable {
+
+    /**
+     * Counts for one call to {@link #readParallel}
+     *
+     * @param games    games read and passed on
+     * @param rejected games skipped because they could not be read
+     */
+    public record Totals(long games, long rejected) {
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private final StringBuilder token = new StringBuilder(32);
+    private final MoveList legal = new MoveList();
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Opens a UTF-8 (or plain ASCII) PGN file
+     */
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(new InputStreamReader(
+                FileChannelInput.open(file, 0, Long.MAX_VALUE), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     * @throws IllegalArgumentException if the game has a malformed tag or an illegal move
+     */
+    public PgnGame next() throws IOException {
+        int c = skipWhitespace();
+        if (c < 0) {
+            return null;
+        }
+        int startLine = line;
+        Map<String, String> tags = new LinkedHashMap<>();
+        while (c == '[') {
+            read();
+            readTag(tags, startLine);
+            c = skipWhitespace();
+        }
+
+        ChessBoard board;
+        try {
+            board = ChessBoard.fromFen(tags.getOrDefault("FEN", Fen.START));
+        } catch (IllegalArgumentException e) {
+            skipGame();
+            throw invalid(startLine, e.getMessage());
+        }
+        List<ChessMove> moves = new ArrayList<>();
+        String result = PgnGame.UNFINISHED;
+        while ((c = skipWhitespace()) >= 0 && c != '[') {
+            if (c == '{' || c == ';' || c == '(') {
+                skipCommentOrVariation();
+                continue;
+            }
+            readToken();
+            if (isResult(token)) {
+                result = token.toString();
+                break;
+            }
+            int start = skipMoveNumber(token);
+            if (start == token.length() || token.charAt(0) == '$' || isEnPassantMark(token)) {
+                continue;
+            }
+            MoveGenerator.legalMoves(board, legal);
+            int move = San.parse(board, token.subSequence(start, token.length()), legal);
+            if (move == Move.NONE) {
+                String bad = token.substring(start);
+                skipGame();
+                throw invalid(startLine, "illegal or ambiguous move " + bad + " after "
+                        + moves.size() + " plies");
+            }
+            board.makeMove(move);
+            moves.add(Move.toChessMove(move));
+        }
+        return new PgnGame(tags, moves, result);
+    }
+
+    /**
+     * Streams the remaining games. The stream ends at the first game that can not be
+     * read, throwing its IllegalArgumentException; read errors surface as UncheckedIOException.
+     */
+    public Stream<PgnGame> stream() {
+        Iterator<PgnGame> games = new Iterator<>() {
+            private PgnGame next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = PgnReader.this.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public PgnGame next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                PgnGame game = next;
+                next = null;
+                return game;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(games,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads a file on several threads. The file is cut into one byte range per thread,
+     * each cut moved forward to the start of the next game's tags, and each range is
+     * read by its own reader. Games go to the consumer on the reading threads, in file
+     * order within a range but in no order across ranges. Unreadable games are counted
+     * and skipped.
+     */
+    public static Totals readParallel(Path file, int threads, Consumer<PgnGame> games) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        long[] cuts = new long[threads + 1];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            cuts[threads] = size;
+            for (int i = 1; i < threads; i++) {
+                cuts[i] = Math.max(cuts[i - 1], nextGameStart(channel, size * i / threads, size));
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pgn-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Totals>> ranges = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                long start = cuts[i];
+                long end = cuts[i + 1];
+                ranges.add(pool.submit(() -> readRange(file, start, end, games)));
+            }
+            long read = 0;
+            long rejected = 0;
+            for (Future<Totals> range : ranges) {
+                Totals totals = range.get();
+                read += totals.games();
+                rejected += totals.rejected();
+            }
+            return new Totals(read, rejected);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted reading " + file, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Totals readRange(Path file, long start, long end, Consumer<PgnGame> games) throws IOException {
+        long read = 0;
+        long rejected = 0;
+        if (start >= end) {
+            return new Totals(0, 0);
+        }
+        try (PgnReader reader = new PgnReader(new InputStreamReader(
+                FileChannelInput.open(file, start, end), StandardCharsets.UTF_8))) {
+            while (true) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    continue;
+                }
+                if (game == null) {
+                    return new Totals(read, rejected);
+                }
+                games.accept(game);
+                read++;
+            }
+        }
+    }
+
+    // offset of the first line after from that opens a tag section, that is a line
+    // starting with '[' below one that does not
+    private static long nextGameStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        long offset = from;
+        boolean lineStart = false;
+        boolean previousWasTag = false;
+        // counts the partial first line as a tag line, so a cut there never splits a game's tags
+        boolean currentIsTag = true;
+        while (offset < size) {
+            bytes.clear();
+            int count = channel.read(bytes, offset);
+            if (count <= 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                byte b = bytes.get(i);
+                if (lineStart) {
+                    lineStart = false;
+                    currentIsTag = b == '[';
+                    if (currentIsTag && !previousWasTag) {
+                        return offset + i;
+                    }
+                }
+                if (b == '\n') {
+                    previousWasTag = currentIsTag;
+                    currentIsTag = false;
+                    lineStart = true;
+                }
+            }
+            offset += count;
+        }
+        return size;
+    }
+
+    private void readTag(Map<String, String> tags, int startLine) throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = read()) >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            token.append((char) c);
+        }
+        String name = token.toString();
+        while (c >= 0 && c != '"' && c != ']' && c != '\n') {
+            c = read();
+        }
+        if (c != '"') {
+            while (c >= 0 && c != '\n') {
+                c = read();
+            }
+            while (skipWhitespace() == '[') {
+                while ((c = read()) >= 0 && c != '\n') {
+                    // skip the rest of the tag section
+                }
+            }
+            skipGame();
+            throw invalid(startLine, "tag " + name + " has no quoted value");
+        }
+        token.setLength(0);
+        while ((c = read()) >= 0 && c != '"' && c != '\n') {
+            if (c == '\\') {
+                c = read();
+            }
+            token.append((char) c);
+        }
+        while (c >= 0 && c != ']' && c != '\n') {
+            c = read();
+        }
+        tags.put(name, token.toString());
+    }
+
+    // reads up to whitespace or the start of a comment, variation or tag
+    private void readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c)
+                && c != '{' && c != ';' && c != '(' && c != ')' && c != '[') {
+            token.append((char) read());
+        }
+        if (token.isEmpty()) {
+            // a stray closing parenthesis
+            read();
+        }
+    }
+
+    // comments do not nest, variations do and may hold comments
+    private void skipCommentOrVariation() throws IOException {
+        int depth = 0;
+        int c;
+        do {
+            c = read();
+            if (c == '{') {
+                while ((c = read()) >= 0 && c != '}') {
+                    // skip
+                }
+            } else if (c == ';') {
+                while ((c = read()) >= 0 && c != '\n') {
+                    // skip
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        } while (c >= 0 && depth > 0);
+    }
+
+    // moves the input past the rest of a bad game: up to its result, or the next tag section
+    private void skipGame() throws IOException {
+        int c;
+        while ((c = skipWhitespace()) >= 0 && c != '[') {
+            if (c == '{' || c == ';' || c == '(') {
+                skipCommentOrVariation();
+                continue;
+            }
+            readToken();
+            if (isResult(token)) {
+                return;
+            }
+        }
+    }
+
+    // index after a leading move number such as 12. or 12... , 0 if there is none
+    private static int skipMoveNumber(CharSequence text) {
+        int i = 0;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        int digits = i;
+        while (i < text.length() && text.charAt(i) == '.') {
+            i++;
+        }
+        // digits running straight into something else are not a move number, as in 0-0
+        return i == digits && digits < text.length() ? 0 : i;
+    }
+
+    private static boolean isResult(CharSequence text) {
+        return contentEquals(text, PgnGame.WHITE_WINS) || contentEquals(text, PgnGame.BLACK_WINS)
+                || contentEquals(text, PgnGame.DRAW) || contentEquals(text, PgnGame.UNFINISHED);
+    }
+
+    private static boolean isEnPassantMark(CharSequence text) {
+        return contentEquals(text, "e.p.");
+    }
+
+    private static boolean contentEquals(CharSequence text, String value) {
+        return value.contentEquals(text);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && Character.isWhitespace(c)) {
+            read();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+
+    private IllegalArgumentException invalid(int startLine, String reason) {
+        return new IllegalArgumentException("Invalid PGN game at line " + startLine + ": " + reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * The bytes of a file between two offsets, read with positional reads so several
+     * ranges of one file can be read at once
+     */
+    private static final class FileChannelInput extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        private FileChannelInput(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        static FileChannelInput open(Path file, long start, long end) throws IOException {
+            return new FileChannelInput(FileChannel.open(file, StandardOpenOption.READ), start, end);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int wanted = (int) Math.min(length, end - position);
+            int count = channel.read(ByteBuffer.wrap(bytes, offset, wanted), position);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
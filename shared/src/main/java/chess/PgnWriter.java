@@ -0,0 +1,135 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN in export format: the seven standard tags first, then any others,
+ * then the moves in SAN wrapped at 80 columns. Each game is replayed on one board with
+ * one legal move generation per ply, and nothing is kept once it has been written.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final int LINE_WIDTH = 80;
+    private static final Map<String, String> SEVEN_TAGS = new LinkedHashMap<>();
+
+    static {
+        SEVEN_TAGS.put("Event", "?");
+        SEVEN_TAGS.put("Site", "?");
+        SEVEN_TAGS.put("Date", "????.??.??");
+        SEVEN_TAGS.put("Round", "?");
+        SEVEN_TAGS.put("White", "?");
+        SEVEN_TAGS.put("Black", "?");
+        SEVEN_TAGS.put("Result", PgnGame.UNFINISHED);
+    }
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+    private final StringBuilder token = new StringBuilder(16);
+    private final MoveList legal = new MoveList();
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a game with its moves and current result. A game that did not start from
+     * the initial position gets SetUp and FEN tags for the position it started from.
+     *
+     * @param tags any tags to add, the seven standard ones default to unknown
+     */
+    public void write(ChessGame game, Map<String, String> tags) throws IOException {
+        String start = game.getStartFen();
+        if (!Fen.START.equals(start)) {
+            tags = new LinkedHashMap<>(tags);
+            tags.put("SetUp", "1");
+            tags.put("FEN", start);
+        }
+        write(new PgnGame(tags, List.copyOf(game.getGameMoves()), PgnGame.resultOf(game)));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a move is not legal in the position it is played from
+     */
+    public void write(PgnGame game) throws IOException {
+        for (Map.Entry<String, String> tag : SEVEN_TAGS.entrySet()) {
+            String value = tag.getKey().equals("Result") ? game.result() : game.tags().get(tag.getKey());
+            writeTag(tag.getKey(), value == null ? tag.getValue() : value);
+        }
+        for (Map.Entry<String, String> tag : game.tags().entrySet()) {
+            if (!SEVEN_TAGS.containsKey(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+        writeMoves(game.startingBoard(), game.moves());
+        appendToken(game.result());
+        out.append(line).append("\n\n");
+        line.setLength(0);
+    }
+
+    // the legal moves of each position serve both the move played from it and the
+    // check or mate mark of the move that led to it
+    private void writeMoves(ChessBoard board, Collection<ChessMove> moves) throws IOException {
+        boolean first = true;
+        MoveGenerator.legalMoves(board, legal);
+        for (ChessMove chessMove : moves) {
+            int move = legal.find(chessMove);
+            if (move == Move.NONE) {
+                throw new IllegalArgumentException("Illegal move " + chessMove + " in " + board.toFen());
+            }
+            token.setLength(0);
+            if (board.sideToMove == ChessBoard.WHITE) {
+                token.append(board.fullmoveNumber).append(". ");
+            } else if (first) {
+                token.append(board.fullmoveNumber).append("... ");
+            }
+            San.appendMove(token, board, move, legal);
+            board.makeMove(move);
+            MoveGenerator.legalMoves(board, legal);
+            San.appendSuffix(token, board, legal);
+            appendToken(token);
+            first = false;
+        }
+    }
+
+    // adds a token to the current line, starting a new line if it would not fit
+    private void appendToken(CharSequence text) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + text.length() > LINE_WIDTH) {
+            out.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(text);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append("\"]\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,215 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table, shared by every game in the JVM, of the legal moves and status
+ * of positions seen before, keyed by {@link ChessBoard#getZobristKey()}.
+ * <p>
+ * Entries live in one packed long[] and are read and written without locks. Each slot
+ * stores a check word equal to the key XORed with every data word, so a reader that
+ * races a writer and sees half of one entry and half of another gets a mismatch and
+ * treats it as a miss rather than returning the wrong moves. Up to {@link #MAX_MOVES}
+ * moves are kept per position, positions with more are simply not cached.
+ * <p>
+ * Slots are grouped in buckets of two. With {@link Replacement#OLDEST} a new position
+ * replaces the slot that was written longest ago, with {@link Replacement#ALWAYS}
+ * only the first slot of each bucket is used and the newest position always wins.
+ */
+public final class PositionCache {
+
+    public enum Replacement {
+        ALWAYS,
+        OLDEST
+    }
+
+    public static final String BUDGET_PROPERTY = "chess.positionCache.mb";
+    public static final String REPLACEMENT_PROPERTY = "chess.positionCache.replacement";
+    static final long DEFAULT_BUDGET_MB = 0;
+
+    static final int MAX_MOVES = 64;
+    private static final int MOVES_PER_WORD = 4;
+    // check word, meta word, then the moves four to a word
+    private static final int SLOT_WORDS = 2 + MAX_MOVES / MOVES_PER_WORD;
+    private static final int BUCKET_SLOTS = 2;
+
+    // meta word: move count in bits 0-7, status in 8-10, store epoch in 11-42,
+    // the top 20 bits of the key in 43-62 to reject most misses without reading the moves
+    private static final long VALID = 1L << 63;
+    private static final long TAG_MASK = 0xFFFFFL;
+    private static final ChessGame.GameStatus[] STATUSES = ChessGame.GameStatus.values();
+
+    private final long[] table;
+    private final int bucketMask;
+    private final Replacement replacement;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param budgetBytes most memory the table may use, rounded down to a power of two
+     *                    number of buckets. Anything under one bucket disables the cache.
+     */
+    public PositionCache(long budgetBytes, Replacement replacement) {
+        long buckets = budgetBytes / (SLOT_WORDS * BUCKET_SLOTS * Long.BYTES);
+        long maxBuckets = Integer.MAX_VALUE / (SLOT_WORDS * BUCKET_SLOTS);
+        buckets = buckets <= 0 ? 0 : Long.highestOneBit(Math.min(buckets, maxBuckets));
+        this.table = new long[(int) buckets * SLOT_WORDS * BUCKET_SLOTS];
+        this.bucketMask = (int) buckets - 1;
+        this.replacement = replacement;
+    }
+
+    private static final class Shared {
+        static final PositionCache INSTANCE = new PositionCache(
+                Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MB) * 1024 * 1024,
+                Replacement.valueOf(System.getProperty(REPLACEMENT_PROPERTY, Replacement.OLDEST.name())));
+    }
+
+    /**
+     * @return the JVM-wide cache, sized by the chess.positionCache.mb system property
+     * (default 0, which leaves it off) and replacing by chess.positionCache.replacement.
+     * The table is allocated on the first call.
+     */
+    public static PositionCache shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Looks a position up, copying its legal moves into the list on a hit
+     *
+     * @return the cached status, or null if the position is not in the table
+     */
+    public ChessGame.GameStatus probe(long key, MoveList moves) {
+        if (table.length == 0) {
+            return null;
+        }
+        int bucket = bucketStart(key);
+        for (int slot = 0; slot < BUCKET_SLOTS; slot++) {
+            ChessGame.GameStatus status = read(bucket + slot * SLOT_WORDS, key, moves);
+            if (status != null) {
+                hits.increment();
+                return status;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private ChessGame.GameStatus read(int base, long key, MoveList moves) {
+        long check = table[base];
+        long meta = table[base + 1];
+        if ((meta & VALID) == 0 || (meta >>> 43 & TAG_MASK) != key >>> 44) {
+            return null;
+        }
+        int count = (int) (meta & 0xFF);
+        if (count > MAX_MOVES) {
+            return null;
+        }
+        long verify = check ^ meta;
+        moves.clear();
+        for (int i = 0; i < (count + MOVES_PER_WORD - 1) / MOVES_PER_WORD; i++) {
+            long word = table[base + 2 + i];
+            verify ^= word;
+            for (int j = 0; j < MOVES_PER_WORD && moves.size() < count; j++) {
+                moves.add((int) (word >>> (j * 16) & 0xFFFF));
+            }
+        }
+        if (verify != key) {
+            moves.clear();
+            return null;
+        }
+        return STATUSES[(int) (meta >>> 8 & 7)];
+    }
+
+    /**
+     * Remembers the status and legal moves of a position. Positions with more than
+     * {@link #MAX_MOVES} moves are skipped.
+     */
+    public void store(long key, ChessGame.GameStatus status, MoveList moves) {
+        if (table.length == 0 || moves.size() > MAX_MOVES) {
+            return;
+        }
+        int base = bucketStart(key) + victimSlot(key) * SLOT_WORDS;
+        long meta = VALID | (key >>> 44) << 43 | epoch() << 11
+                | (long) status.ordinal() << 8 | moves.size();
+        long check = key ^ meta;
+        int words = (moves.size() + MOVES_PER_WORD - 1) / MOVES_PER_WORD;
+        for (int i = 0; i < words; i++) {
+            long word = 0;
+            for (int j = 0; j < MOVES_PER_WORD; j++) {
+                int index = i * MOVES_PER_WORD + j;
+                if (index < moves.size()) {
+                    word |= (long) (moves.get(index) & 0xFFFF) << (j * 16);
+                }
+            }
+            table[base + 2 + i] = word;
+            check ^= word;
+        }
+        table[base + 1] = meta;
+        table[base] = check;
+        stores.increment();
+    }
+
+    // the age of an entry in steps of about a millisecond. A clock rather than a shared
+    // counter, so stores from many threads never contend on one cache line. Entries
+    // written in the same step tie, and the first slot of the bucket goes.
+    private static long epoch() {
+        return System.nanoTime() >>> 20 & 0xFFFFFFFFL;
+    }
+
+    private int bucketStart(long key) {
+        return ((int) key & bucketMask) * SLOT_WORDS * BUCKET_SLOTS;
+    }
+
+    // the slot to overwrite: one already holding the key, else per the replacement policy
+    private int victimSlot(long key) {
+        if (replacement == Replacement.ALWAYS) {
+            return 0;
+        }
+        int bucket = bucketStart(key);
+        int oldest = 0;
+        long oldestEpoch = Long.MAX_VALUE;
+        for (int slot = 0; slot < BUCKET_SLOTS; slot++) {
+            long meta = table[bucket + slot * SLOT_WORDS + 1];
+            if ((meta & VALID) == 0 || (meta >>> 43 & TAG_MASK) == key >>> 44) {
+                return slot;
+            }
+            long written = meta >>> 11 & 0xFFFFFFFFL;
+            if (written < oldestEpoch) {
+                oldestEpoch = written;
+                oldest = slot;
+            }
+        }
+        return oldest;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * @return how many positions the table can hold
+     */
+    public int capacity() {
+        return table.length / SLOT_WORDS;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
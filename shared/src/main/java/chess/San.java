@@ -0,0 +1,291 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standard algebraic notation ({@code Nbd7}, {@code exd5}, {@code O-O}, {@code e8=Q+}),
+ * read and written against a list of the legal moves of the position. Disambiguation
+ * comes from that one list rather than a generation per candidate piece, and the check
+ * or mate mark from the legal moves of the next position, which a game or line needs
+ * anyway, so converting a whole game costs one legal move generation per ply.
+ * {@link ChessGame#toSan} and {@link ChessGame#fromSan} also reuse the moves the game
+ * has already generated.
+ */
+public final class San {
+
+    // SAN piece letters, indexed by piece type
+    private static final char[] LETTERS = {'K', 'Q', 'B', 'N', 'R', 'P'};
+
+    private San() {
+    }
+
+    /**
+     * @return the SAN of a legal move on the board, with a check or mate mark
+     * @throws IllegalArgumentException if the move is not legal for the side to move
+     */
+    public static String toSan(ChessBoard board, ChessMove move) {
+        MoveList legal = new MoveList();
+        MoveGenerator.legalMoves(board, legal);
+        int encoded = legal.find(move);
+        if (encoded == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move " + move + " in " + board.toFen());
+        }
+        StringBuilder san = new StringBuilder(8);
+        append(san, board, encoded, legal);
+        return san.toString();
+    }
+
+    /**
+     * @return the legal move the SAN names for the side to move
+     * @throws IllegalArgumentException if it names no legal move, or more than one
+     */
+    public static ChessMove fromSan(ChessBoard board, String san) {
+        MoveList legal = new MoveList();
+        MoveGenerator.legalMoves(board, legal);
+        int move = parse(board, san, legal);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("Illegal or ambiguous move " + san + " in " + board.toFen());
+        }
+        return Move.toChessMove(move);
+    }
+
+    /**
+     * Writes a line of moves played one after another from the board, such as a game
+     * or a principal variation. The board is played on and restored.
+     *
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public static List<String> line(ChessBoard board, List<ChessMove> moves) {
+        List<String> line = new ArrayList<>(moves.size());
+        MoveList legal = new MoveList();
+        StringBuilder san = new StringBuilder(8);
+        MoveGenerator.legalMoves(board, legal);
+        int played = 0;
+        try {
+            for (ChessMove chessMove : moves) {
+                int move = legal.find(chessMove);
+                if (move == Move.NONE) {
+                    throw new IllegalArgumentException("Illegal move " + chessMove + " in " + board.toFen());
+                }
+                san.setLength(0);
+                appendMove(san, board, move, legal);
+                board.makeMove(move);
+                played++;
+                MoveGenerator.legalMoves(board, legal);
+                appendSuffix(san, board, legal);
+                line.add(san.toString());
+            }
+        } finally {
+            for (; played > 0; played--) {
+                board.unmakeMove();
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Finds the legal move a SAN token names. Check, mate and annotation marks at the
+     * end are ignored, and castling may be written with zeros.
+     *
+     * @param legal every legal move of the position
+     * @return the encoded move, or {@link Move#NONE} if no legal move or more than one matches
+     */
+    static int parse(ChessBoard board, CharSequence san, MoveList legal) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (isCastle(san, end, 5)) {
+            return findCastle(legal, Move.QUEEN_CASTLE);
+        }
+        if (isCastle(san, end, 3)) {
+            return findCastle(legal, Move.KING_CASTLE);
+        }
+
+        // promotion, as e8=Q or e8Q
+        ChessPiece.PieceType promotion = null;
+        int promoted = end > 2 ? pieceType(san.charAt(end - 1)) : -1;
+        if (promoted > MoveGenerator.KING && promoted != MoveGenerator.PAWN) {
+            promotion = ChessPiece.PieceType.values()[promoted];
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end < 2) {
+            return Move.NONE;
+        }
+        int file = san.charAt(end - 2) - 'a';
+        int rank = san.charAt(end - 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return Move.NONE;
+        }
+        int to = rank * 8 + file;
+
+        int start = 0;
+        int type = MoveGenerator.PAWN;
+        if (end > 2 && pieceType(san.charAt(0)) >= 0 && pieceType(san.charAt(0)) != MoveGenerator.PAWN) {
+            type = pieceType(san.charAt(0));
+            start = 1;
+        }
+        // whatever is left between the piece and the target square narrows the start square
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Move.NONE;
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.isCastle(move)
+                    || ChessBoard.typeOf(board.pieceAt(from)) != type
+                    || Move.promotionType(move) != promotion
+                    || (fromFile >= 0 && from % 8 != fromFile)
+                    || (fromRank >= 0 && from / 8 != fromRank)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * Appends the SAN of a move, with the least disambiguation the other legal moves
+     * call for and a check or mate mark. The board is played on and restored, and
+     * the reply moves are only looked for when the move gives check.
+     *
+     * @param legal every legal move of the position, including this one
+     */
+    static void append(StringBuilder out, ChessBoard board, int move, MoveList legal) {
+        appendMove(out, board, move, legal);
+        board.makeMove(move);
+        if (inCheck(board)) {
+            out.append(MoveGenerator.hasLegalMove(board, board.getSideToMove()) ? '+' : '#');
+        }
+        board.unmakeMove();
+    }
+
+    /**
+     * Appends the SAN of a move without its check or mate mark
+     *
+     * @param legal every legal move of the position, including this one
+     */
+    static void appendMove(StringBuilder out, ChessBoard board, int move, MoveList legal) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = ChessBoard.typeOf(board.pieceAt(from));
+        int flag = Move.flag(move);
+        if (flag == Move.KING_CASTLE) {
+            out.append("O-O");
+            return;
+        }
+        if (flag == Move.QUEEN_CASTLE) {
+            out.append("O-O-O");
+            return;
+        }
+        if (type == MoveGenerator.PAWN) {
+            if (Move.isCapture(move)) {
+                out.append((char) ('a' + from % 8));
+            }
+        } else {
+            out.append(LETTERS[type]);
+            appendDisambiguation(out, board, move, type, legal);
+        }
+        if (Move.isCapture(move)) {
+            out.append('x');
+        }
+        out.append((char) ('a' + to % 8)).append((char) ('1' + to / 8));
+        ChessPiece.PieceType promotion = Move.promotionType(move);
+        if (promotion != null) {
+            out.append('=').append(LETTERS[promotion.ordinal()]);
+        }
+    }
+
+    /**
+     * Appends the check or mate mark of the move that led to the board
+     *
+     * @param replies the legal moves of the side to move on the board
+     */
+    static void appendSuffix(StringBuilder out, ChessBoard board, MoveList replies) {
+        if (inCheck(board)) {
+            out.append(replies.isEmpty() ? '#' : '+');
+        }
+    }
+
+    // whether the side to move is in check
+    private static boolean inCheck(ChessBoard board) {
+        int king = board.kingSquare(board.sideToMove);
+        return king != ChessBoard.NO_SQUARE && board.isSquareAttacked(king, 1 - board.sideToMove);
+    }
+
+    // the file if it tells the candidates apart, else the rank, else both
+    private static void appendDisambiguation(StringBuilder out, ChessBoard board, int move, int type, MoveList legal) {
+        int from = Move.from(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = legal.get(i);
+            int otherFrom = Move.from(other);
+            if (Move.to(other) != Move.to(move) || otherFrom == from
+                    || ChessBoard.typeOf(board.pieceAt(otherFrom)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= otherFrom % 8 == from % 8;
+            sameRank |= otherFrom / 8 == from / 8;
+        }
+        if (ambiguous && (!sameFile || sameRank)) {
+            out.append((char) ('a' + from % 8));
+        }
+        if (ambiguous && sameFile) {
+            out.append((char) ('1' + from / 8));
+        }
+    }
+
+    private static int findCastle(MoveList legal, int flag) {
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.flag(legal.get(i)) == flag) {
+                return legal.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    // O-O or O-O-O (length 3 or 5), with letter O or zero
+    private static boolean isCastle(CharSequence san, int end, int length) {
+        if (end != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = san.charAt(i);
+            if (i % 2 == 1 ? c != '-' : c != 'O' && c != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static int pieceType(char letter) {
+        for (int type = 0; type < LETTERS.length; type++) {
+            if (LETTERS[type] == letter) {
+                return type;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,280 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks a move for the side to move with a negamax alpha-beta search, deepened one ply
+ * at a time until the depth or time budget runs out. Captures are searched first in
+ * most-valuable-victim / least-valuable-attacker order, quiet moves by killer and
+ * history scores, and every leaf is settled with a captures-only quiescence search.
+ * <p>
+ * All working buffers (one move list per ply, the principal variation table, the
+ * ordering tables) belong to the instance and are reused, so a search allocates
+ * only its result. An instance is not thread-safe: use one per thread.
+ */
+public final class Search {
+
+    public static final int MATE = 100_000;
+    static final int MAX_PLY = 64;
+
+    private static final int INFINITY = MATE + 1;
+    // how often, in nodes, the clock is read
+    private static final int CHECK_INTERVAL = 2047;
+
+    private static final int PV_SCORE = 2_000_000;
+    private static final int CAPTURE_SCORE = 1_000_000;
+    private static final int KILLER_SCORE = 900_000;
+    private static final int HISTORY_LIMIT = 800_000;
+
+    /**
+     * @param bestMove           the move to play, or null if the side to move has none
+     * @param principalVariation the line the search expects, starting with bestMove
+     * @param score              centipawns for the side to move, +/- MATE minus plies for a mate
+     * @param depth              the deepest iteration that finished
+     * @param nodes              positions visited, quiescence included
+     * @param elapsedNanos       wall time spent searching
+     */
+    public record Result(ChessMove bestMove, List<ChessMove> principalVariation, int score, int depth,
+                         long nodes, long elapsedNanos) {
+
+        public double nodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][256];
+    // two quiet moves per ply that caused a beta cutoff
+    private final int[][] killers = new int[MAX_PLY][2];
+    // indexed by [from][to], how much quiet moves have cut off, weighted by depth
+    private final int[][] history = new int[64][64];
+    // triangular principal variation table, row ply holds the best line from that ply on
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    // the best line of the last finished iteration, tried first by the next one
+    private final int[] previousPv = new int[MAX_PLY];
+    private int previousPvLength;
+
+    private ChessBoard board;
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    private int completedDepth;
+
+    public Search() {
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches the game's current position to a fixed depth
+     */
+    public Result search(ChessGame game, int maxDepth) {
+        return search(game, maxDepth, 0);
+    }
+
+    /**
+     * Searches the game's current position, deepening until maxDepth is reached or the
+     * time limit runs out. The first iteration always finishes, so a position with a
+     * legal move always gets a best move.
+     *
+     * @param timeLimitMillis the time budget, 0 for none
+     */
+    public Result search(ChessGame game, int maxDepth, long timeLimitMillis) {
+        board = game.copy();
+        board.setSideToMove(game.getTeamTurn());
+        nodes = 0;
+        stopped = false;
+        completedDepth = 0;
+        previousPvLength = 0;
+        for (int[] killer : killers) {
+            Arrays.fill(killer, Move.NONE);
+        }
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+        long start = System.nanoTime();
+        deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000 : Long.MAX_VALUE;
+
+        int score = 0;
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int iterationScore = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            score = iterationScore;
+            completedDepth = depth;
+            previousPvLength = pvLength[0];
+            System.arraycopy(pv[0], 0, previousPv, 0, previousPvLength);
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+
+        List<ChessMove> line = new ArrayList<>(previousPvLength);
+        for (int i = 0; i < previousPvLength; i++) {
+            line.add(Move.toChessMove(previousPv[i]));
+        }
+        ChessMove best = line.isEmpty() ? null : line.get(0);
+        board = null;
+        return new Result(best, line, score, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+        pvLength[ply] = 0;
+        if ((++nodes & CHECK_INTERVAL) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+        MoveList moves = moveLists[ply];
+        MoveGenerator.legalMoves(board, moves);
+        if (moves.isEmpty()) {
+            return inCheck() ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, ply);
+
+        int best = -INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            board.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (score >= beta) {
+                    if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                        rememberQuietCutoff(move, depth, ply);
+                    }
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    // only captures and promotions, so the static evaluation is never taken mid-exchange
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if ((++nodes & CHECK_INTERVAL) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+        int standPat = Evaluation.evaluate(board);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        MoveList moves = moveLists[ply];
+        MoveGenerator.legalCaptures(board, moves);
+        scoreMoves(moves, ply);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (score >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    private void scoreMoves(MoveList moves, int ply) {
+        int[] scores = orderScores[ply];
+        int pvMove = ply < previousPvLength ? previousPv[ply] : Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            if (move == pvMove) {
+                scores[i] = PV_SCORE;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                int attacker = ChessBoard.typeOf(board.pieceAt(from));
+                int victim = Move.flag(move) == Move.EN_PASSANT ? MoveGenerator.PAWN
+                        : Move.isCapture(move) ? ChessBoard.typeOf(board.pieceAt(to)) : MoveGenerator.KING;
+                int attackerValue = attacker == MoveGenerator.KING ? 1000 : Evaluation.VALUES[attacker];
+                int promotion = Move.isPromotion(move) ? Evaluation.VALUES[Move.promotionType(move).ordinal()] : 0;
+                scores[i] = CAPTURE_SCORE + Evaluation.VALUES[victim] * 10 + promotion - attackerValue / 10;
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE - 1;
+            } else {
+                scores[i] = history[from][to];
+            }
+        }
+    }
+
+    // selection sort one step at a time, most searches cut off long before the list is sorted
+    private int pickNext(MoveList moves, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    private void rememberQuietCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[Move.from(move)];
+        row[Move.to(move)] = Math.min(HISTORY_LIMIT, row[Move.to(move)] + depth * depth);
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private boolean inCheck() {
+        int king = board.kingSquare(board.sideToMove);
+        return king != ChessBoard.NO_SQUARE && board.isSquareAttacked(king, 1 - board.sideToMove);
+    }
+
+    private void checkTime() {
+        if (completedDepth > 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+    }
+}
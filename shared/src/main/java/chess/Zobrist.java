@@ -0,0 +1,60 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key of every
+ * (piece, square) pair on the board plus the castling rights, en passant file and side
+ * to move, so each change to the board is a single XOR. The keys come from a fixed
+ * seed, so the same position has the same key on the client, the server and in storage.
+ */
+final class Zobrist {
+
+    // indexed by [piece index][square]
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    // indexed by the 4-bit castling rights mask
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                seed = next(seed);
+                squares[square] = mix(seed);
+            }
+        }
+        // rights combine by XOR so removing one right is one XOR as well
+        long[] single = new long[4];
+        for (int i = 0; i < 4; i++) {
+            seed = next(seed);
+            single[i] = mix(seed);
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            for (int i = 0; i < 4; i++) {
+                if ((rights & (1 << i)) != 0) {
+                    CASTLING[rights] ^= single[i];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            seed = next(seed);
+            EN_PASSANT_FILE[file] = mix(seed);
+        }
+        seed = next(seed);
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
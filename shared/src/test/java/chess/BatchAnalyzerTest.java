@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BatchAnalyzerTest {
+
+    @Test
+    public void analysesEveryPositionOfAGame() throws InterruptedException {
+        List<ChessMove> moves = List.of(
+                new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null),
+                new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null),
+                new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+
+        BatchAnalyzer.BatchStats stats;
+        try (var analyzer = new BatchAnalyzer(2, 1, 2, 0)) {
+            stats = analyzer.analyze(BatchAnalyzer.positionsOf(moves), analysis -> {
+                Assertions.assertNotNull(analysis.result().bestMove());
+                seen.add(analysis.index());
+            });
+        }
+
+        Assertions.assertEquals(Set.of(0L, 1L, 2L, 3L), seen);
+        Assertions.assertEquals(4, stats.positions());
+        Assertions.assertEquals(0, stats.failures());
+        Assertions.assertEquals(0, stats.callbackFailures());
+        Assertions.assertTrue(stats.nodes() > 0);
+    }
+
+    @Test
+    public void throwingCallbackCountsThePositionOnce() throws InterruptedException {
+        List<ChessMove> moves = List.of(
+                new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null),
+                new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+
+        BatchAnalyzer.BatchStats stats;
+        try (var analyzer = new BatchAnalyzer(2, 1, 1, 0)) {
+            stats = analyzer.analyze(BatchAnalyzer.positionsOf(moves), analysis -> {
+                if (analysis.index() == 1) {
+                    throw new IllegalStateException("callback failed");
+                }
+            });
+        }
+
+        Assertions.assertEquals(2, stats.positions());
+        Assertions.assertEquals(0, stats.failures());
+        Assertions.assertEquals(1, stats.callbackFailures());
+    }
+
+    @Test
+    public void illegalMoveStopsTheReplay() {
+        List<ChessMove> moves = List.of(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(5, 5), null));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BatchAnalyzer.positionsOf(moves).count());
+    }
+}
@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DrawRulesTest {
+
+    private static void play(ChessGame game, int startRow, int startCol, int endRow, int endCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null));
+    }
+
+    // both knights out and back, which returns to the starting position
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+    }
+
+    @Test
+    public void threefoldRepetitionIsADraw() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+
+        shuffleKnights(game);
+
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertEquals(ChessGame.GameStatus.REPETITION_DRAW, game.getStatus());
+        Assertions.assertThrows(InvalidMoveException.class, () -> play(game, 2, 5, 4, 5));
+    }
+
+    @Test
+    public void pawnMoveClearsTheWindow() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        play(game, 2, 5, 4, 5);
+        play(game, 7, 5, 5, 5);
+        Assertions.assertEquals(0, game.getBoard().getHalfmoveClock());
+
+        shuffleKnights(game);
+
+        Assertions.assertEquals(4, game.getBoard().getHalfmoveClock());
+        Assertions.assertFalse(game.isThreefoldRepetition());
+    }
+
+    @Test
+    public void fiftyMoveRuleIsADraw() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.getBoard().setHalfmoveClock(96);
+        game.setBoard(game.getBoard());
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 1, 2, 3, 3);
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+
+        play(game, 8, 2, 6, 3);
+
+        Assertions.assertEquals(ChessGame.GameStatus.FIFTY_MOVE_DRAW, game.getStatus());
+        Assertions.assertTrue(game.gameOver());
+    }
+}
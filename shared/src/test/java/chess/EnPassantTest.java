@@ -0,0 +1,39 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+public class EnPassantTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+
+    @Test
+    public void offTurnPawnCanNotTakeEnPassant() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        ChessPosition d2 = ChessPosition.of(2, 4);
+        Set<ChessMove> pushes = Set.of(move(2, 4, 3, 4), move(2, 4, 4, 4));
+
+        Assertions.assertEquals(pushes, Set.copyOf(game.validMoves(d2)));
+        Assertions.assertEquals(pushes, Set.copyOf(game.getBoard().getPiece(d2).pieceMoves(game.getBoard(), d2)));
+    }
+
+    @Test
+    public void sideToMoveStillTakesEnPassant() throws InvalidMoveException {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(2, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(4, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        game.makeMove(move(2, 5, 4, 5));
+
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(4, 4)).contains(move(4, 4, 3, 5)));
+    }
+}
@@ -0,0 +1,48 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FenTest {
+
+    @Test
+    public void startPositionRoundTrips() {
+        ChessGame game = new ChessGame();
+
+        Assertions.assertEquals(Fen.START, game.toFen());
+        ChessGame loaded = ChessGame.fromFen(Fen.START);
+        Assertions.assertEquals(game, loaded);
+        Assertions.assertEquals(game.getBoard().getZobristKey(), loaded.getBoard().getZobristKey());
+    }
+
+    @Test
+    public void movesUpdateEveryField() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+    }
+
+    @Test
+    public void clocksAreOptional() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R b K -");
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K2R b K - 0 1", game.toFen());
+    }
+
+    @Test
+    public void rejectsMalformedText() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"));
+    }
+}
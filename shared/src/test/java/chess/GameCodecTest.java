@@ -0,0 +1,67 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class GameCodecTest {
+
+    private static ChessGame roundTrip(ChessGame game) {
+        return GameCodec.decode(GameCodec.encode(game));
+    }
+
+    @Test
+    public void playedGameReadsBack() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/6P1/8/3pP3/8/8/8/R3K2R w Kq d6 3 40");
+        game.makeMove(game.fromSan("exd6"));
+        game.makeMove(game.fromSan("O-O-O"));
+        game.makeMove(game.fromSan("g8=N"));
+
+        ChessGame again = roundTrip(game);
+
+        Assertions.assertEquals(game, again);
+        Assertions.assertEquals(game.toFen(), again.toFen());
+        Assertions.assertEquals(game.getGameMoves(), again.getGameMoves());
+        Assertions.assertEquals(game.getBoard().getZobristKey(), again.getBoard().getZobristKey());
+        Assertions.assertEquals(game.getStatus(), again.getStatus());
+        Assertions.assertEquals("r3k2r/6P1/8/3pP3/8/8/8/R3K2R w Kq d6 3 40", again.getStartFen());
+    }
+
+    @Test
+    public void repetitionsAndResignationSurvive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : new String[]{"Nf3", "Nf6", "Ng1", "Ng8", "Nf3", "Nf6", "Ng1"}) {
+            game.makeMove(game.fromSan(move));
+        }
+        ChessGame again = roundTrip(game);
+        again.makeMove(again.fromSan("Ng8"));
+        Assertions.assertEquals(ChessGame.GameStatus.REPETITION_DRAW, again.getStatus());
+
+        game.setResigned(true);
+        Assertions.assertEquals(ChessGame.GameStatus.RESIGNED, roundTrip(game).getStatus());
+    }
+
+    @Test
+    public void smallerThanJson() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : new String[]{"e4", "e5", "Nf3", "Nc6", "Bb5", "a6"}) {
+            game.makeMove(game.fromSan(move));
+        }
+        int binary = GameCodec.encode(game).length;
+
+        Assertions.assertEquals(1 + 32 + 6 + 2 + 8 + 2 + 2 * 6 + 1, binary);
+        Assertions.assertTrue(binary * 10 < new Gson().toJson(game).length());
+    }
+
+    @Test
+    public void rejectsWhatItCanNotRead() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+        bytes[0] = 2;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+    }
+}
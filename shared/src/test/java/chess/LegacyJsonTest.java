@@ -0,0 +1,86 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// the fixtures were written by Gson from the ChessGame that kept its board as an 8x8 grid
+public class LegacyJsonTest {
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = LegacyJsonTest.class.getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    private static ChessGame play(ChessMove... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    @Test
+    public void gridGameReadsBack() throws IOException, InvalidMoveException {
+        ChessGame game = new Gson().fromJson(fixture("baseline-e4.json"), ChessGame.class);
+        ChessGame expected = play(move(2, 5, 4, 5));
+
+        Assertions.assertEquals(expected, game);
+        Assertions.assertEquals(expected.getBoard().getZobristKey(), game.getBoard().getZobristKey());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(2, game.validMoves(new ChessPosition(7, 4)).size());
+    }
+
+    @Test
+    public void castledGameReadsBack() throws IOException, InvalidMoveException {
+        ChessGame game = new Gson().fromJson(fixture("baseline-castled.json"), ChessGame.class);
+        ChessGame expected = play(move(2, 5, 4, 5), move(7, 5, 5, 5), move(1, 7, 3, 6), move(8, 2, 6, 3),
+                move(1, 6, 4, 3), move(8, 7, 6, 6), move(1, 5, 1, 7));
+
+        Assertions.assertEquals(expected, game);
+        Assertions.assertEquals(expected.getBoard().getZobristKey(), game.getBoard().getZobristKey());
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(new ChessPosition(1, 7)));
+        Assertions.assertEquals(7, game.getGameMoves().size());
+        Assertions.assertEquals(expected.getBoard().getHalfmoveClock(), game.getBoard().getHalfmoveClock());
+        Assertions.assertEquals(expected.toFen(), GameCodec.decode(GameCodec.encode(game)).toFen());
+        game.makeMove(move(8, 6, 7, 5));
+        game.makeMove(move(2, 4, 3, 4));
+        Assertions.assertTrue(game.validMoves(new ChessPosition(8, 5)).contains(move(8, 5, 8, 7)));
+    }
+
+    @Test
+    public void gridWithoutMovesKeepsTheBoard() throws IOException {
+        JsonObject stored = JsonParser.parseString(fixture("baseline-castled.json")).getAsJsonObject();
+        stored.add("gameMoves", new JsonArray());
+
+        ChessGame game = new Gson().fromJson(stored, ChessGame.class);
+
+        Assertions.assertEquals("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 0 1", game.toFen());
+    }
+
+    @Test
+    public void currentFormatStillRoundTrips() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 4, 4, 4));
+        game.makeMove(move(7, 4, 5, 4));
+        Gson gson = new Gson();
+
+        ChessGame again = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+        Assertions.assertEquals(game.getBoard(), again.getBoard());
+        Assertions.assertEquals(game.getGameMoves(), again.getGameMoves());
+    }
+}
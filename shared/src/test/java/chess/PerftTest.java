@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTest {
+
+    private static final long[] START_COUNTS = {1, 20, 400, 8902, 197281};
+
+    // well known positions that exercise castling, en passant, promotion and pins
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String CHECKS = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    public void startPosition() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        for (int depth = 0; depth < START_COUNTS.length; depth++) {
+            Assertions.assertEquals(START_COUNTS[depth], Perft.count(board, depth), "depth " + depth);
+        }
+        Assertions.assertEquals(new ChessBoard(board).getZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    public void fenPositions() {
+        assertCounts(KIWIPETE, 48, 2039, 97862);
+        assertCounts(ENDGAME, 14, 191, 2812, 43238);
+        assertCounts(PROMOTIONS, 6, 264, 9467);
+        assertCounts(CHECKS, 44, 1486, 62379);
+    }
+
+    @Test
+    public void divideMatchesSequentialCount() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        Perft.Result result = Perft.divide(board, 4, ForkJoinPool.commonPool(), 2);
+
+        Assertions.assertEquals(START_COUNTS[4], result.nodes());
+        Assertions.assertEquals(20, result.divide().size());
+        Assertions.assertEquals(result.nodes(), result.divide().values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(13160, result.divide().get(
+                new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null)));
+    }
+
+    private static void assertCounts(String fen, long... counts) {
+        ChessBoard board = ChessBoard.fromFen(fen);
+        for (int depth = 1; depth <= counts.length; depth++) {
+            Assertions.assertEquals(counts[depth - 1], Perft.count(board, depth), fen + " depth " + depth);
+        }
+        Assertions.assertEquals(fen, board.toFen());
+    }
+}
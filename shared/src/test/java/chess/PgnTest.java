@@ -0,0 +1,117 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class PgnTest {
+
+    // castling both ways, en passant, a promotion with capture and checks
+    private static final String GAME = """
+            [Event "Test"]
+            [Site "?"]
+            [Date "2024.01.01"]
+            [Round "1"]
+            [White "alice"]
+            [Black "bob \\"the rook\\""]
+            [Result "1-0"]
+
+            1. e4 {king's pawn} d5 2. e5 f5 3. exf6 $1 (3. d4 e6 {French}) 3... Nc6 4. fxg7 Be6
+            5. gxh8=Q Qd6 6. Nf3 O-O-O 7. Bd3 Bg4 8. O-O Bxf3 9. Qxg8 Bxd1 10. Qxf8 Rxf8
+            11. Rxd1 Qxh2+ 12. Kxh2 Rxf2 13. Bf5+ Kb8 14. Rf1 Rxf1 15. Kg3 Rf3+ 16. Kxf3 1-0
+            """;
+
+    @Test
+    public void readsTagsMovesAndResult() throws IOException {
+        PgnGame game = new PgnReader(new StringReader(GAME)).next();
+
+        Assertions.assertEquals("bob \"the rook\"", game.tag("Black"));
+        Assertions.assertEquals(PgnGame.WHITE_WINS, game.result());
+        Assertions.assertEquals(31, game.moves().size());
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null), game.moves().get(4));
+    }
+
+    @Test
+    public void mateEndsTheGame() throws IOException {
+        PgnGame game = new PgnReader(new StringReader("1. f3 e5 2. g4 Qh4# 0-1")).next();
+        ChessGame played = game.toGame();
+
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, played.getStatus());
+        Assertions.assertEquals(PgnGame.BLACK_WINS, PgnGame.resultOf(played));
+    }
+
+    @Test
+    public void writtenGameReadsBack() throws IOException {
+        PgnGame game = new PgnReader(new StringReader(GAME)).next();
+        StringWriter text = new StringWriter();
+        new PgnWriter(text).write(game);
+
+        PgnGame again = new PgnReader(new StringReader(text.toString())).next();
+
+        Assertions.assertEquals(game, again);
+        Assertions.assertTrue(text.toString().contains("5. gxh8=Q Qd6 6. Nf3 O-O-O"));
+        Assertions.assertTrue(text.toString().contains("13. Bf5+"));
+        text.toString().lines().forEach(line -> Assertions.assertTrue(line.length() <= 80, line));
+    }
+
+    @Test
+    public void disambiguatesByFileThenRank() throws IOException {
+        // the rooks on a3 and h2 can also reach a2, a3 shares the file and h2 the other rank
+        String fen = "4k3/8/8/8/8/R7/7R/R3K3 w - - 0 1";
+        PgnGame game = new PgnGame(Map.of("FEN", fen), List.of(
+                new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(2, 1), null),
+                new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(8, 4), null),
+                new ChessMove(ChessPosition.of(2, 8), ChessPosition.of(2, 2), null)), PgnGame.UNFINISHED);
+        StringWriter text = new StringWriter();
+        new PgnWriter(text).write(game);
+
+        Assertions.assertTrue(text.toString().contains("1. R1a2 Kd8 2. Rhb2"), text.toString());
+        Assertions.assertEquals(game.moves(), new PgnReader(new StringReader(text.toString())).next().moves());
+    }
+
+    @Test
+    public void badGameIsSkipped() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader("""
+                [Event "bad"]
+
+                1. e4 e5 2. Ke3 Nc6 *
+
+                [Event "good"]
+
+                1. d4 1/2-1/2
+                """));
+
+        Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+        PgnGame good = reader.next();
+        Assertions.assertEquals("good", good.tag("Event"));
+        Assertions.assertEquals(PgnGame.DRAW, good.result());
+        Assertions.assertNull(reader.next());
+    }
+
+    @Test
+    public void parallelReadFindsEveryGame(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("games.pgn");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append(GAME.replace("[Round \"1\"]", "[Round \"" + i + "\"]")).append('\n');
+        }
+        Files.writeString(file, text);
+
+        List<String> rounds = Collections.synchronizedList(new ArrayList<>());
+        PgnReader.Totals totals = PgnReader.readParallel(file, 4, game -> rounds.add(game.tag("Round")));
+
+        Assertions.assertEquals(200, totals.games());
+        Assertions.assertEquals(0, totals.rejected());
+        Assertions.assertEquals(200, rounds.stream().distinct().count());
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PositionCacheTest {
+
+    @Test
+    public void storedPositionComesBack() {
+        var cache = new PositionCache(1 << 20, PositionCache.Replacement.OLDEST);
+        var board = new ChessBoard();
+        board.resetBoard();
+        var moves = new MoveList();
+        MoveGenerator.legalMoves(board, moves);
+
+        cache.store(board.getZobristKey(), ChessGame.GameStatus.ONGOING, moves);
+        var cached = new MoveList();
+
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, cache.probe(board.getZobristKey(), cached));
+        Assertions.assertEquals(moves.toChessMoves(), cached.toChessMoves());
+        Assertions.assertNull(cache.probe(board.getZobristKey() ^ 1, cached));
+        Assertions.assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    public void oldestEntryIsReplaced() {
+        // a single bucket, so every key lands in the same two slots
+        var cache = new PositionCache(1, PositionCache.Replacement.OLDEST);
+        Assertions.assertEquals(0, cache.capacity());
+        cache = new PositionCache(2 * 18 * Long.BYTES, PositionCache.Replacement.OLDEST);
+        var empty = new MoveList();
+
+        cache.store(1L << 60, ChessGame.GameStatus.CHECKMATE, empty);
+        cache.store(2L << 60, ChessGame.GameStatus.STALEMATE, empty);
+        cache.store(3L << 60, ChessGame.GameStatus.ONGOING, empty);
+
+        Assertions.assertNull(cache.probe(1L << 60, empty));
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, cache.probe(2L << 60, empty));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, cache.probe(3L << 60, empty));
+    }
+
+    @Test
+    public void sharedCacheIsOffUnlessAskedFor() {
+        Assertions.assertNull(System.getProperty(PositionCache.BUDGET_PROPERTY));
+        Assertions.assertEquals(0, PositionCache.shared().capacity());
+    }
+
+    @Test
+    public void tooManyMovesAreNotStored() {
+        var cache = new PositionCache(1 << 20, PositionCache.Replacement.ALWAYS);
+        var moves = new MoveList();
+        for (int i = 0; i <= PositionCache.MAX_MOVES; i++) {
+            moves.add(Move.of(i % 64, (i + 1) % 64, Move.QUIET));
+        }
+
+        cache.store(42, ChessGame.GameStatus.ONGOING, moves);
+
+        Assertions.assertNull(cache.probe(42, moves));
+        Assertions.assertEquals(0, cache.stores());
+    }
+}
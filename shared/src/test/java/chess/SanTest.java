@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SanTest {
+
+    @Test
+    public void gameWritesAndReadsSan() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+
+        Assertions.assertEquals("e4", game.toSan(e4));
+        Assertions.assertEquals(e4, game.fromSan("e4"));
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null), game.fromSan("Nf3!?"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.fromSan("e5"));
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.toSan(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(5, 5), null)));
+    }
+
+    @Test
+    public void checkAndMateMarks() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R3K2R w KQ - 0 1");
+
+        Assertions.assertEquals("Ra8#", game.toSan(game.fromSan("Ra8")));
+        Assertions.assertEquals("O-O-O", game.toSan(game.fromSan("0-0-0")));
+        Assertions.assertEquals("O-O", game.toSan(game.fromSan("O-O")));
+
+        ChessGame check = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+        ChessMove castle = check.fromSan("O-O");
+        Assertions.assertEquals("Rh8+", check.toSan(check.fromSan("Rh8")));
+        check.makeMove(castle);
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, check.getStatus());
+    }
+
+    @Test
+    public void promotionAndDisambiguation() {
+        ChessBoard board = ChessBoard.fromFen("1n2k3/P7/8/8/8/5N2/8/1N2K3 w - - 0 1");
+
+        Assertions.assertEquals("axb8=Q+", San.toSan(board, new ChessMove(
+                ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("a8=N", San.toSan(board, new ChessMove(
+                ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT)));
+        Assertions.assertEquals("Nbd2", San.toSan(board, new ChessMove(
+                ChessPosition.of(1, 2), ChessPosition.of(2, 4), null)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.fromSan(board, "Nd2"));
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(2, 4), null),
+                San.fromSan(board, "Nfd2"));
+    }
+
+    @Test
+    public void lineLeavesTheBoardAsItWas() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        String before = board.toFen();
+        List<ChessMove> foolsMate = List.of(
+                San.fromSan(board, "f3"), new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null),
+                new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null),
+                new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+
+        Assertions.assertEquals(List.of("f3", "e5", "g4", "Qh4#"), San.line(board, foolsMate));
+        Assertions.assertEquals(before, board.toFen());
+    }
+}
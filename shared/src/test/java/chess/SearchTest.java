@@ -0,0 +1,111 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class SearchTest {
+
+    @Test
+    public void findsMateInOne() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Search.Result result = new Search().search(game, 4);
+
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                result.bestMove());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+        Assertions.assertEquals(1, result.principalVariation().size());
+    }
+
+    @Test
+    public void takesHangingQueen() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | |N| | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Search.Result result = new Search().search(game, 3);
+
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(3, 3), ChessPosition.of(5, 4), null),
+                result.bestMove());
+        Assertions.assertTrue(result.nodes() > 0);
+    }
+
+    @Test
+    public void quiescenceMovesAreTheCapturesAndPromotions() {
+        var board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | |P| | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | |P| | | |
+                | | |N| | | | |r|
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        board.setSideToMove(ChessGame.TeamColor.WHITE);
+        MoveList all = new MoveList();
+        MoveList captures = new MoveList();
+
+        MoveGenerator.legalMoves(board, all);
+        MoveGenerator.legalCaptures(board, captures);
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < all.size(); i++) {
+            if (Move.isCapture(all.get(i)) || Move.isPromotion(all.get(i))) {
+                expected.add(all.get(i));
+            }
+        }
+        Set<Integer> actual = new HashSet<>();
+        for (int i = 0; i < captures.size(); i++) {
+            actual.add(captures.get(i));
+        }
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(expected.size(), captures.size());
+        Assertions.assertEquals(6, captures.size());
+    }
+
+    @Test
+    public void noMoveWhenMated() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |R| | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Search.Result result = new Search().search(game, 3, 100);
+
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Search.MATE, result.score());
+    }
+}
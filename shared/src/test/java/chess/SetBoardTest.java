@@ -0,0 +1,53 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SetBoardTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    @Test
+    public void boardFromAGameKeepsItsRights() throws InvalidMoveException {
+        ChessGame played = new ChessGame();
+        played.makeMove(move(2, 5, 4, 5));
+        played.makeMove(move(7, 5, 5, 5));
+        played.makeMove(move(1, 5, 2, 5));
+        played.makeMove(move(8, 5, 7, 5));
+        played.makeMove(move(2, 5, 1, 5));
+        played.makeMove(move(7, 5, 8, 5));
+
+        ChessGame game = new ChessGame();
+        game.setBoard(played.getBoard());
+
+        Assertions.assertEquals(0, game.getBoard().castlingRights);
+        Assertions.assertSame(played.getBoard(), game.getBoard());
+        Assertions.assertFalse(game.validMoves(new ChessPosition(1, 5)).contains(move(1, 5, 1, 7)));
+    }
+
+    @Test
+    public void boardFromFenKeepsItsRights() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w - - 0 1"));
+
+        Assertions.assertEquals("r3k2r/8/8/8/8/8/8/R3K2R w - - 0 1", game.toFen());
+    }
+
+    @Test
+    public void handPlacedBoardGetsItsRightsOnACopy() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        Assertions.assertEquals(ChessBoard.WHITE_KING_SIDE, game.getBoard().castlingRights);
+        Assertions.assertEquals(0, board.castlingRights);
+        Assertions.assertNotSame(board, game.getBoard());
+        Assertions.assertTrue(game.validMoves(new ChessPosition(1, 5)).contains(move(1, 5, 1, 7)));
+    }
+}